@@ -1,7 +1,7 @@
 /*
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
  *
- * Copyright (c) 2010-2018 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010-2026 Oracle and/or its affiliates. All rights reserved.
  *
  * The contents of this file are subject to the terms of either the GNU
  * General Public License Version 2 only ("GPL") or the Common Development
@@ -46,19 +46,79 @@
 package org.glassfish.copyright;
 
 import java.io.*;
+import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.*;
 
+import org.glassfish.copyright.CheckResult.Count;
+
 public abstract class AbstractCopyright {
     protected Copyright c;	// our context and configuration
 
     private String correctCopyright;
     private String correctBSDCopyright;
-    private static String licensor = "Oracle and/or its affiliates";
+    private String licensor;
     private Pattern cpat;
     private Pattern bpat;
-    private List<Pattern> acpatlist = new ArrayList<Pattern>();
-    private List<Pattern> dcpatlist = new ArrayList<Pattern>();
+    private List<Pattern> acpatlist;
+    private List<Pattern> dcpatlist;
+
+    // for each template pattern, the lines any match must contain
+    private static final Map<Pattern, String[]> requiredLines =
+				new ConcurrentHashMap<Pattern, String[]>();
+
+    // set if any template has a copyright line with a literal year
+    private static volatile boolean templateYears;
+
+    // size of the blocks read when looking for extra copyrights
+    private static final int SCAN_SIZE = 64 * 1024;
+    // the buffer used by each thread when looking for extra copyrights
+    private static final ThreadLocal<char[]> scanBuffer =
+	new ThreadLocal<char[]>() {
+	    @Override
+	    protected char[] initialValue() {
+		return new char[SCAN_SIZE];
+	    }
+	};
+
+    // the buffer used by each thread to collect the text of a comment
+    private static final ThreadLocal<StringBuilder> commentBuffer =
+	new ThreadLocal<StringBuilder>() {
+	    @Override
+	    protected StringBuilder initialValue() {
+		return new StringBuilder(4096);
+	    }
+	};
+
+    // the file each thread is repairing, so copy() can splice it in
+    private static final ThreadLocal<Splice> splice =
+	new ThreadLocal<Splice>();
+
+    private static class Splice {
+	final FileContent content;
+	final BufferedReader in;
+	final FileOutputStream fout;
+	final BufferedWriter out;
+
+	Splice(FileContent content, BufferedReader in,
+		FileOutputStream fout, BufferedWriter out) {
+	    this.content = content;
+	    this.in = in;
+	    this.fout = fout;
+	    this.out = out;
+	}
+    }
+
+    // the classification of recently seen comments
+    private static final int MAX_VERDICTS = 1000;
+    private final Map<String, Verdict> verdicts =
+		new LinkedHashMap<String, Verdict>(16, 0.75f, true) {
+	    protected boolean removeEldestEntry(
+				    Map.Entry<String, Verdict> eldest) {
+		return size() > MAX_VERDICTS;
+	    }
+	};
 
     // patterns for good copyright headers
     private static Pattern apat;
@@ -93,6 +153,8 @@ public abstract class AbstractCopyright {
     private static final String DEFAULT_ALTERNATE =
 					"cddl+gpl+ce-java.net-copyright.txt";
     private static final String DEFAULT_BSD = "bsd-copyright.txt";
+    private static final String DEFAULT_LICENSOR =
+					"Oracle and/or its affiliates";
 
     // find a valid copyright line
     protected static Pattern ypat = Pattern.compile(COPYRIGHT_STRING);
@@ -146,80 +208,138 @@ public abstract class AbstractCopyright {
 
     public AbstractCopyright(Copyright c) {
 	this.c = c;
+	Templates t;
 	try {
-	    if (c.correctTemplate != null) {
+	    t = Templates.get(c);
+	} catch (IOException ex) {
+	    throw new RuntimeException("Can't load copyright template", ex);
+	}
+	correctCopyright = t.correctCopyright;
+	correctBSDCopyright = t.correctBSDCopyright;
+	licensor = t.licensor;
+	cpat = t.cpat;
+	bpat = t.bpat;
+	acpatlist = t.acpatlist;
+	dcpatlist = t.dcpatlist;
+    }
+
+    /**
+     * The text and compiled patterns for a set of copyright templates.
+     * Compiling the patterns is expensive, so they're compiled once
+     * and shared by all instances, in all Copyright objects, that use
+     * the same templates.
+     */
+    private static class Templates {
+	String correctCopyright;
+	String correctBSDCopyright;
+	String licensor = DEFAULT_LICENSOR;
+	Pattern cpat;
+	Pattern bpat;
+	List<Pattern> acpatlist = new ArrayList<Pattern>();
+	List<Pattern> dcpatlist = new ArrayList<Pattern>();
+
+	// templates key -> Templates
+	private static final Map<String, Templates> templates =
+					    new HashMap<String, Templates>();
+
+	/**
+	 * Get the Templates for the templates configured in c.
+	 * The licensor is extracted from the correct template so
+	 * it's implied by the key.
+	 */
+	static synchronized Templates get(Copyright c) throws IOException {
+	    String key = key(c.correctTemplate) + "\n" +
+			    key(c.alternateTemplate) + "\n" +
+			    key(c.correctBSDTemplate);
+	    Templates t = templates.get(key);
+	    if (t == null) {
+		t = new Templates(c);
+		templates.put(key, t);
+	    }
+	    return t;
+	}
+
+	private static String key(File file) {
+	    if (file == null)
+		return "";
+	    return file.getAbsolutePath() + "@" + file.lastModified();
+	}
+
+	private Templates(Copyright c) throws IOException {
+	    if (c.correctTemplate != null)
 		correctCopyright = getCopyrightText(c.correctTemplate);
-		cpat = getCopyrightPattern(c.correctTemplate);
-		dcpatlist.add(getDerivedCopyrightPattern(c.correctTemplate,
-						"apacheold-copyright.txt"));
-		dcpatlist.add(getDerivedCopyrightPattern(c.correctTemplate,
-						"apache-copyright.txt"));
-		dcpatlist.add(getDerivedCopyrightPattern(c.correctTemplate,
-						"mitsallings-copyright.txt"));
-		dcpatlist.add(getDerivedCopyrightPattern(c.correctTemplate,
-						"w3c-copyright.txt"));
+	    else
+		correctCopyright = getCopyrightText(DEFAULT_CORRECT);
+
+	    // extract the licensor from the template, before compiling
+	    // the patterns that depend on it
+	    try {
+		int yyyy = correctCopyright.indexOf("YYYY");
+		if (yyyy > 0) {
+		    int dot = correctCopyright.indexOf(".", yyyy);
+		    if (dot < 0)
+			dot = correctCopyright.indexOf("\n", yyyy);
+		    if (dot > 0)
+			licensor = correctCopyright.substring(yyyy + 5, dot);
+		}
+	    } catch (StringIndexOutOfBoundsException ex) {
+	    }
+
+	    if (c.correctTemplate != null) {
+		cpat = getCopyrightPattern(c.correctTemplate, licensor);
+		addDerived(dcpatlist, c.correctTemplate);
 		// if using a specified template and no specified alternate,
 		// don't use the default alternate
 	    } else {
-		correctCopyright = getCopyrightText(DEFAULT_CORRECT);
-		cpat = getCopyrightPattern(DEFAULT_CORRECT);
-		dcpatlist.add(getDerivedCopyrightPattern(DEFAULT_CORRECT,
-						"apacheold-copyright.txt"));
-		dcpatlist.add(getDerivedCopyrightPattern(DEFAULT_CORRECT,
-			    "apache-copyright.txt"));
-		dcpatlist.add(getDerivedCopyrightPattern(DEFAULT_CORRECT,
-						"mitsallings-copyright.txt"));
-		dcpatlist.add(getDerivedCopyrightPattern(DEFAULT_CORRECT,
-						"w3c-copyright.txt"));
+		cpat = getCopyrightPattern(DEFAULT_CORRECT, licensor);
+		addDerived(dcpatlist, DEFAULT_CORRECT);
 		// if using the default template and the default alternate,
 		// add all the derived alternates
 		if (c.alternateTemplate == null) {
-		    acpatlist.add(getCopyrightPattern(DEFAULT_ALTERNATE));
-		    acpatlist.add(getDerivedCopyrightPattern(DEFAULT_ALTERNATE,
-						"apacheold-copyright.txt"));
-		    acpatlist.add(getDerivedCopyrightPattern(DEFAULT_ALTERNATE,
-						"apache-copyright.txt"));
-		    acpatlist.add(getDerivedCopyrightPattern(DEFAULT_ALTERNATE,
-						"mitsallings-copyright.txt"));
-		    acpatlist.add(getDerivedCopyrightPattern(DEFAULT_ALTERNATE,
-						"w3c-copyright.txt"));
+		    acpatlist.add(getCopyrightPattern(DEFAULT_ALTERNATE,
+							licensor));
+		    addDerived(acpatlist, DEFAULT_ALTERNATE);
 		}
 	    }
 	    if (c.alternateTemplate != null) {
-		acpatlist.add(getCopyrightPattern(c.alternateTemplate));
-		acpatlist.add(getDerivedCopyrightPattern(c.alternateTemplate,
-						"apacheold-copyright.txt"));
-		acpatlist.add(getDerivedCopyrightPattern(c.alternateTemplate,
-						"apache-copyright.txt"));
-		acpatlist.add(getDerivedCopyrightPattern(c.alternateTemplate,
-						"mitsallings-copyright.txt"));
-		acpatlist.add(getDerivedCopyrightPattern(c.alternateTemplate,
-						"w3c-copyright.txt"));
+		acpatlist.add(getCopyrightPattern(c.alternateTemplate,
+							licensor));
+		addDerived(acpatlist, c.alternateTemplate);
 	    }
 	    if (c.correctBSDTemplate != null) {
 		correctBSDCopyright = getCopyrightText(c.correctBSDTemplate);
-		bpat = getCopyrightPattern(c.correctBSDTemplate);
+		bpat = getCopyrightPattern(c.correctBSDTemplate, licensor);
 	    } else {
 		correctBSDCopyright = getCopyrightText(DEFAULT_BSD);
-		bpat = getCopyrightPattern(DEFAULT_BSD);
+		bpat = getCopyrightPattern(DEFAULT_BSD, licensor);
 	    }
+	}
 
-	    // extract the licensor from the template
-	    // XXX - shouldn't stored in a static
-	    try {
-		int yyyy = correctCopyright.indexOf("YYYY");
-		if (yyyy > 0) {
-		    int dot = correctCopyright.indexOf(".", yyyy);
-		    if (dot < 0)
-			dot = correctCopyright.indexOf("\n", yyyy);
-		    if (dot > 0)
-			licensor = correctCopyright.substring(yyyy + 5, dot);
-		}
-	    } catch (StringIndexOutOfBoundsException ex) {
-	    }
-	} catch (IOException ex) {
-	    throw new RuntimeException("Can't load copyright template", ex);
+	/**
+	 * Add the patterns for the templates derived from the named
+	 * resource.
+	 */
+	private void addDerived(List<Pattern> patlist, String base)
+				throws IOException {
+	    for (String d : derived)
+		patlist.add(getDerivedCopyrightPattern(base, d, licensor));
 	}
+
+	/**
+	 * Add the patterns for the templates derived from the file.
+	 */
+	private void addDerived(List<Pattern> patlist, File base)
+				throws IOException {
+	    for (String d : derived)
+		patlist.add(getDerivedCopyrightPattern(base, d, licensor));
+	}
+
+	private static final String[] derived = {
+	    "apacheold-copyright.txt",
+	    "apache-copyright.txt",
+	    "mitsallings-copyright.txt",
+	    "w3c-copyright.txt"
+	};
     }
 
     /**
@@ -235,13 +355,22 @@ public abstract class AbstractCopyright {
     protected void checkCopyright(File file) throws IOException {
 	String lc = null;
 	if (c.skipNoSVN) {
-	    if (isModified(file.getPath())) {
+	    // for git, the index tells us which files are tracked
+	    Boolean tracked = c.git ? c.gitIndex.isTracked(file) : null;
+	    if (tracked != null) {
+		if (!tracked.booleanValue()) {
+		    if (c.verbose)
+			c.out().println(
+			    "Not under version control, skipped: " + file);
+		    return;
+		}
+	    } else if (isModified(file.getPath())) {
 		// yes, under SCM control
 	    } else {
 		lc = lastChanged(file.getPath());
 		if (lc.length() == 0) {
 		    if (c.verbose)
-			System.out.println(
+			c.out().println(
 			    "Not under version control, skipped: " + file);
 		    return;	// no, not under SCM control
 		}
@@ -250,18 +379,23 @@ public abstract class AbstractCopyright {
 
 	BufferedReader r = null;
 	String comment = null;
+	boolean warned = false;
 	try {
-	    r = new BufferedReader(
-		new InputStreamReader(new FileInputStream(file), "iso-8859-1"));
+	    FileContent fc = c.content(file);
+	    if (fc != null)
+		r = fc.reader();
+	    else
+		r = new BufferedReader(new InputStreamReader(
+				new FileInputStream(file), "iso-8859-1"));
 	    comment = readComment(r);
 	    if (c.debug) {
-		System.out.println("Comment for: " + file);
-		System.out.println("---");
-		System.out.println(comment);
-		System.out.println("---");
+		c.out().println("Comment for: " + file);
+		c.out().println("---");
+		c.out().println(comment);
+		c.out().println("---");
 	    }
 	    if (c.warn && !c.quiet)
-		warnCopyright(file, r);
+		warned = warnCopyright(file, r);
 	} finally {
 	    if (r != null)
 		r.close();
@@ -269,74 +403,75 @@ public abstract class AbstractCopyright {
 
 	if (comment == null) {
 	    err(file + ": No copyright");
-	    c.nMissing++;
+	    c.result.add(Count.MISSING);
 	    if (c.doRepair)
-		repair(file, comment, RepairType.MISSING);
+		repairFile(file, comment, RepairType.MISSING);
 	    return;
 	}
 	if (comment.trim().length() == 0) {
 	    err(file + ": Empty copyright");
-	    c.nEmpty++;
+	    c.result.add(Count.EMPTY);
 	    if (c.doRepair)
-		repair(file, comment, RepairType.MISSING);
+		repairFile(file, comment, RepairType.MISSING);
 	    return;
 	}
 	if (!cspat.matcher(comment).find()) {
 	    err(file + ": No copyright");
-	    c.nMissing++;
+	    c.result.add(Count.MISSING);
 	    if (c.doRepair)
-		repair(file, comment, RepairType.MISSING);
+		repairFile(file, comment, RepairType.MISSING);
 	    return;
 	}
-	if (matches(cpat, comment) ||
-		// if normalizing, don't consider any derived or alternates
-		(!c.normalize && matches(dcpatlist, comment)) ||
-		(!c.normalize && matches(acpatlist, comment)) ||
-		matches(bpat, comment) ||
-		matches(apat, comment) ||
-		matches(anpat, comment) ||
-		matches(oapat, comment)) {
-	    // a good match
-	} else {
-	    if (matches(sunpat, comment)) {
+	Verdict v = verdict(comment);
+	if (v == Verdict.APACHE) {
+	    // plain Apache header doesn't include a copyright notice
+	    if (!warned)
+		c.passed(file);
+	    return;
+	}
+	if (v != Verdict.GOOD) {
+	    switch (v) {
+	    case SUN:
 		err(file + ": Sun copyright");
-		c.nSun++;
-	    } else if (matches(sunapat, comment) ||
-		    matches(sunanewpat, comment)) {
+		c.result.add(Count.SUN);
+		break;
+	    case SUN_APACHE:
 		err(file + ": Sun+Apache copyright");
-		c.nSunApache++;
-	    } else if (matches(sunbpat, comment)) {
+		c.result.add(Count.SUN_APACHE);
+		break;
+	    case SUN_BSD:
 		err(file + ": Sun BSD copyright");
-		c.nSunBSD++;
-	    } else if (matches(ocpat, comment) ||
-		    matches(oc2pat, comment)) {
+		c.result.add(Count.SUN_BSD);
+		break;
+	    case OLD_CDDL:
 		err(file + ": Old CDDL copyright");
-		c.nOldCDDL++;
-	    } else if (matches(cnocepat, comment)) {
+		c.result.add(Count.OLD_CDDL);
+		break;
+	    case NO_CE:
 		err(file + ": CDDL+GPL-CE copyright");
-		c.nNoCE++;
-	    } else {
+		c.result.add(Count.NO_CE);
+		break;
+	    default:
 		err(file + ": Wrong copyright");
-		c.nWrong++;
+		c.result.add(Count.WRONG);
+		break;
 	    }
 	    if (c.doRepair)
-		repair(file, comment, RepairType.WRONG);
+		repairFile(file, comment, RepairType.WRONG);
 	    return;
 	}
 
-	// plain Apache header doesn't include a copyright notice
-	if (matches(anpat, comment))
-	    return;
-
 	Matcher m = ypat.matcher(comment);
 	if (!m.find()) {
 	    err(file + ": No copyright year");
-	    c.nNoYear++;
+	    c.result.add(Count.NO_YEAR);
 	    return;
 	}
 	if (c.ignoreYear) {
 	    if (c.verbose)
-		System.out.println("Ignoring year check: " + file);
+		c.out().println("Ignoring year check: " + file);
+	    if (!warned)
+		c.passed(file);
 	    return;
 	}
 
@@ -346,21 +481,135 @@ public abstract class AbstractCopyright {
 	    lastYearIndex--;
 	String lastYear = year.substring(lastYearIndex, lastYearIndex + 4);
 
+	// a copyright that already includes this year can't be out of
+	// date, no matter when the SCM says the file was last changed
+	if (lastYear.equals(thisYear)) {
+	    c.result.add(Count.LOOKUPS_AVOIDED);
+	    checkYear(file, comment, lastYear, thisYear, warned);
+	    return;
+	}
+
+	// the SCM lookup may be done in the background
+	if (!c.deferYearCheck(this, file, comment, lastYear, lc, warned))
+	    checkYear(file, comment, lastYear, scmYear(file, lc), warned);
+    }
+
+    /**
+     * Return the year the file was last changed according to the SCM;
+     * this year if it's modified locally.  If lc isn't null, it's the
+     * year the file was last committed, already looked up.
+     */
+    String scmYear(File file, String lc) throws IOException {
+	c.result.add(Count.LOOKUPS);
 	if (isModified(file.getPath()))
-	    lc = thisYear;
+	    return thisYear;
 	else if (lc == null)
-	    lc = lastChanged(file.getPath());
+	    return lastChanged(file.getPath());
+	else
+	    return lc;
+    }
 
+    /**
+     * Finish checking the file, whose copyright is otherwise correct,
+     * by comparing the last year in the copyright with the year lc
+     * the file was last changed.
+     */
+    void checkYear(File file, String comment, String lastYear, String lc,
+				boolean warned) throws IOException {
 	if (!lastYear.equals(lc)) {
 	    err(file + ": Copyright year is wrong; is " +
 				lastYear + ", should be " + lc);
-	    c.nDate++;
+	    c.result.add(Count.DATE);
 	    if (c.doRepair)
-		repair(file, comment, RepairType.DATE);
+		repairFile(file, comment, RepairType.DATE);
 	    return;
 	}
 	if (c.verbose)
-	    System.out.println("No errors: " + file);
+	    c.out().println("No errors: " + file);
+	if (!warned)
+	    c.passed(file);
+    }
+
+    /**
+     * Classify the comment, using a previous classification of an
+     * identical comment if there is one.
+     */
+    private Verdict verdict(String comment) {
+	String key = verdictKey(comment);
+	Verdict v;
+	synchronized (verdicts) {
+	    v = verdicts.get(key);
+	}
+	if (v != null) {
+	    c.result.add(Count.VERDICT_HITS);
+	    return v;
+	}
+	v = classify(comment);
+	synchronized (verdicts) {
+	    verdicts.put(key, v);
+	}
+	c.result.add(Count.VERDICT_MISSES);
+	return v;
+    }
+
+    /**
+     * Return the key used to cache the classification of the comment.
+     * The digits of the year in each copyright line are replaced with
+     * zeros so that headers that differ only in their years share an
+     * entry.  The patterns only ever match years with [-0-9, ]+, so this
+     * can't change the classification, unless one of the templates
+     * contains a copyright line with a literal year.
+     */
+    private static String verdictKey(String comment) {
+	if (templateYears)
+	    return comment;
+	StringBuilder sb = null;
+	Matcher m = ylpat.matcher(comment);
+	while (m.find()) {
+	    if (sb == null)
+		sb = new StringBuilder(comment);
+	    for (int i = m.start(ylpat_YEAR); i < m.end(ylpat_YEAR); i++) {
+		char ch = sb.charAt(i);
+		if (ch >= '0' && ch <= '9')
+		    sb.setCharAt(i, '0');
+	    }
+	}
+	return sb != null ? sb.toString() : comment;
+    }
+
+    /**
+     * Classify the comment by matching it against all the patterns.
+     */
+    private Verdict classify(String comment) {
+	// the lines of the comment, used to rule out most patterns
+	// without running them
+	Set<String> lines = commentLines(comment);
+	if (matches(cpat, comment, lines) ||
+		// if normalizing, don't consider any derived or alternates
+		(!c.normalize && matches(dcpatlist, comment, lines)) ||
+		(!c.normalize && matches(acpatlist, comment, lines)) ||
+		matches(bpat, comment, lines) ||
+		matches(apat, comment, lines) ||
+		matches(anpat, comment, lines) ||
+		matches(oapat, comment, lines)) {
+	    // a good match
+	    if (matches(anpat, comment, lines))
+		return Verdict.APACHE;
+	    return Verdict.GOOD;
+	}
+	if (matches(sunpat, comment, lines))
+	    return Verdict.SUN;
+	if (matches(sunapat, comment, lines) ||
+		matches(sunanewpat, comment, lines))
+	    return Verdict.SUN_APACHE;
+	if (matches(sunbpat, comment, lines))
+	    return Verdict.SUN_BSD;
+	if (matches(ocpat, comment, lines) ||
+		matches(oc2pat, comment, lines))
+	    return Verdict.OLD_CDDL;
+	if (matches(cnocepat, comment, lines))
+	    return Verdict.NO_CE;
+	return Verdict.WRONG;
     }
 
     /**
@@ -381,8 +630,92 @@ public abstract class AbstractCopyright {
 	return false;
     }
 
+    /**
+     * Does the string, whose lines are in "lines", match the pattern?
+     * The pattern is only run if the string contains all the lines
+     * the pattern requires.
+     */
+    private boolean matches(Pattern pat, String s, Set<String> lines) {
+	return mayMatch(pat, lines) && matches(pat, s);
+    }
+
+    /**
+     * Does the string, whose lines are in "lines", match any of
+     * the patterns?
+     */
+    private boolean matches(List<Pattern> patlist, String s,
+				Set<String> lines) {
+	for (Pattern pat : patlist) {
+	    if (matches(pat, s, lines))
+		return true;
+	}
+	return false;
+    }
+
+    /**
+     * Could a string with the given lines match the pattern?
+     * Checks the lines the pattern requires, starting with the
+     * last since templates tend to differ more near the end.
+     */
+    private static boolean mayMatch(Pattern pat, Set<String> lines) {
+	String[] req = requiredLines.get(pat);
+	if (req == null)
+	    return true;
+	for (int i = req.length - 1; i >= 0; i--) {
+	    if (!lines.contains(req[i]))
+		return false;
+	}
+	return true;
+    }
+
+    /**
+     * Return the set of lines in the comment.
+     */
+    private static Set<String> commentLines(String comment) {
+	Set<String> lines = new HashSet<String>();
+	int start = 0;
+	int nl;
+	while ((nl = comment.indexOf('\n', start)) >= 0) {
+	    lines.add(comment.substring(start, nl));
+	    start = nl + 1;
+	}
+	lines.add(comment.substring(start));
+	return lines;
+    }
+
     enum RepairType { MISSING, WRONG, DATE };
 
+    // classification of a comment
+    enum Verdict {
+	GOOD, APACHE, SUN, SUN_APACHE, SUN_BSD, OLD_CDDL, NO_CE, WRONG
+    };
+
+    /**
+     * Repair the file now, or hand it to a repair thread if we're
+     * repairing files in the background.
+     */
+    private void repairFile(File file, String comment, RepairType type)
+				throws IOException {
+	if (!c.deferRepair(this, file, comment, type))
+	    tryRepair(file, comment, type);
+    }
+
+    /**
+     * Repair the file, reporting it if the file can't be repaired
+     * rather than giving up on the rest of the files.  Besides an
+     * IOException, the file system can throw a RuntimeException, e.g.,
+     * a SecurityException, which only means this file can't be repaired.
+     */
+    void tryRepair(File file, String comment, RepairType type) {
+	try {
+	    repair(file, comment, type);
+	} catch (Exception ex) {	// IOException or RuntimeException
+	    if (!c.quiet)
+		c.out().println(file + ": Can't repair: " + ex);
+	    c.result.add(Count.REPAIR_FAILED);
+	}
+    }
+
     /**
      * Repair the errors in the file.
      *
@@ -400,14 +733,33 @@ public abstract class AbstractCopyright {
      */
     protected void repair(File file, String comment, RepairType type)
 				throws IOException {
-	File newfile = new File(file.getParent(), file.getName() + ".new");
+	// with dontUpdate, leave the result in file.new, otherwise write
+	// it next to the file and rename it over the file
+	Path target = null;
+	File newfile;
+	if (c.dontUpdate) {
+	    newfile = new File(file.getParent(), file.getName() + ".new");
+	} else {
+	    target = file.toPath().toRealPath();	// through any links
+	    if (!Files.isWritable(target))
+		throw new FileNotFoundException(file + " (Permission denied)");
+	    newfile = Files.createTempFile(target.getParent(),
+			"." + target.getFileName() + ".", ".tmp").toFile();
+	}
+	FileContent fc = new FileContent(file);
 	BufferedReader in = null;
+	FileOutputStream fout = null;
 	BufferedWriter out = null;
+	boolean done = false;
 	try {
-	    in = new BufferedReader(new InputStreamReader(
-				new FileInputStream(file), "iso-8859-1"));
-	    out = new BufferedWriter(new OutputStreamWriter(
-				new FileOutputStream(newfile), "iso-8859-1"));
+	    String eol = c.keepLineEndings ? fc.lineTerminator() : "\n";
+	    in = fc.reader();
+	    fout = new FileOutputStream(newfile);
+	    Writer w = new OutputStreamWriter(fout, "iso-8859-1");
+	    if (!eol.equals("\n"))
+		w = new CRLFWriter(w, eol);	// write the file's terminator
+	    out = new BufferedWriter(w);
+	    splice.set(new Splice(fc, in, fout, out));
 	    switch (type) {
 	    case MISSING:
 		replaceCopyright(in, out, null, thisYear);
@@ -425,28 +777,50 @@ public abstract class AbstractCopyright {
 		break;
 	    }
 	    copy(in, out, true);
-
-	    if (!c.dontUpdate) {
-		in.close();
-		out.close();
-
-		// now copy the updated file back to the original
-		in = new BufferedReader(new InputStreamReader(
-				new FileInputStream(newfile), "iso-8859-1"));
-		out = new BufferedWriter(new OutputStreamWriter(
-				new FileOutputStream(file), "iso-8859-1"));
-		copy(in, out, false);
+	    in.close();
+	    in = null;
+	    out.close();
+	    out = null;
+
+	    if (target != null) {
+		replace(newfile.toPath(), target);
+		done = true;
 	    }
+	    c.result.add(Count.REPAIRED);
 	} finally {
+	    splice.remove();
 	    if (in != null)
 		in.close();
 	    if (out != null)
 		out.close();
-	    if (!c.dontUpdate)
+	    else if (fout != null)
+		fout.close();
+	    if (target != null && !done)
 		newfile.delete();
 	}
     }
 
+    /**
+     * Replace the file "target" with the file "tmp" in the same directory,
+     * giving it the permissions of the original.  The rename is atomic,
+     * if the file system supports it, so the target is either the
+     * original or the repaired file, never something in between.
+     */
+    private static void replace(Path tmp, Path target) throws IOException {
+	try {
+	    Files.setPosixFilePermissions(tmp,
+				Files.getPosixFilePermissions(target));
+	} catch (UnsupportedOperationException ex) {
+	    // not a POSIX file system, nothing to preserve
+	}
+	try {
+	    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE,
+				    StandardCopyOption.REPLACE_EXISTING);
+	} catch (AtomicMoveNotSupportedException ex) {
+	    Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+	}
+    }
+
     /**
      * Write the correct copyright to "out", using "year" as the copyright date.
      * The original license may be supplied as "comment", from which a secondary
@@ -540,34 +914,128 @@ public abstract class AbstractCopyright {
     protected abstract String readComment(BufferedReader r) throws IOException;
 
     /**
-     * Warn if there's another copyright statement in the file.
-     * Called with "in" positioned after the main copyright header.
+     * Warn about any extra copyright lines in the rest of the file.
+     * Since a copyright line must include the word "Copyright", the
+     * file is read in large blocks that are searched for the word, and
+     * only the lines containing it are matched against the pattern.
+     * If c.warnLimit is greater than zero, only the lines that start
+     * within that many bytes of the end of the copyright are checked.
      */
-    protected void warnCopyright(File file, BufferedReader in)
+    protected boolean warnCopyright(File file, BufferedReader in)
 				throws IOException {
-	String line;
-	while ((line = in.readLine()) != null) {
-	    Matcher m = ypat.matcher(line);
-	    if (m.find()) {
-		System.out.println(file +
-				    ": WARNING: extra copyright: " + line);
+	boolean warned = false;
+	char[] buf = scanBuffer.get();
+	int len = 0;		// characters in buf
+	long offset = 0;	// offset of buf[0] in the rest of the file
+	boolean eof = false;
+	while (!eof) {
+	    int n = in.read(buf, len, buf.length - len);
+	    if (n < 0)
+		eof = true;
+	    else
+		len += n;
+	    // only look at complete lines, unless at the end of the file
+	    int end = len;
+	    if (!eof) {
+		while (end > 0 && buf[end - 1] != '\n' && buf[end - 1] != '\r')
+		    end--;
+		if (end == 0) {
+		    if (len == buf.length)	// a very long line
+			buf = Arrays.copyOf(buf, buf.length * 2);
+		    continue;
+		}
 	    }
-	    /*
-	     * XXX - too many false positives for this one
-	    else if (line.indexOf("Copyright") >= 0)
-		System.out.println(file +
+	    int i = 0;
+	    while ((i = indexOf(buf, i, end, "Copyright")) >= 0) {
+		int ls = i;
+		while (ls > 0 && buf[ls - 1] != '\n' && buf[ls - 1] != '\r')
+		    ls--;
+		if (c.warnLimit > 0 && offset + ls >= c.warnLimit)
+		    return warned;
+		int le = i;
+		while (le < end && buf[le] != '\n' && buf[le] != '\r')
+		    le++;
+		String line = new String(buf, ls, le - ls);
+		// a match can't start before "Portions " precedes the word
+		Matcher m = ypat.matcher(line);
+		m.region(Math.max(0, i - ls - "Portions ".length()),
+							line.length());
+		if (m.find()) {
+		    c.out().println(file +
+				    ": WARNING: extra copyright: " + line);
+		    warned = true;
+		}
+		/*
+		 * XXX - too many false positives for this one
+		else
+		    c.out().println(file +
 				    ": WARNING: extra copyright word: " + line);
-	    */
+		*/
+		i = le;
+	    }
+	    System.arraycopy(buf, end, buf, 0, len - end);
+	    len -= end;
+	    offset += end;
+	    if (c.warnLimit > 0 && offset >= c.warnLimit)
+		break;
 	}
+	return warned;
+    }
+
+    /**
+     * Return the index of the first occurrence of s in buf between
+     * from and to, or -1 if none.
+     */
+    private static int indexOf(char[] buf, int from, int to, String s) {
+	char first = s.charAt(0);
+	int slen = s.length();
+	int last = to - slen;
+	for (int i = from; i <= last; i++) {
+	    if (buf[i] != first)
+		continue;
+	    int j = 1;
+	    while (j < slen && buf[i + j] == s.charAt(j))
+		j++;
+	    if (j == slen)
+		return i;
+	}
+	return -1;
     }
 
     /**
      * Copy "in" to "out", skipping blank lines at the beginning of "in" if
      * skipBlanks is true, and canonicalizing the line terminators to '\n'.
+     *
+     * When copying the rest of a file being repaired, the rest of the
+     * file usually already has '\n' line terminators, so it's spliced in
+     * after what's been written, transferring the bytes straight from the
+     * file without decoding and encoding them.  When keeping the file's
+     * line terminators, the rest of the file is always spliced in.
      */
     protected void copy(BufferedReader in, BufferedWriter out,
 				boolean skipBlanks) throws IOException {
 	String line;
+	Splice s = splice.get();
+	if (s != null && s.in == in && s.out == out) {
+	    // skip blank lines, remembering where the next line starts
+	    long start;
+	    do {
+		start = s.content.position();
+		if ((line = in.readLine()) == null)
+		    return;
+	    } while (skipBlanks && line.trim().length() == 0);
+	    if (c.keepLineEndings || !s.content.hasCR(start)) {
+		out.flush();
+		s.content.transferTo(start, s.fout.getChannel());
+		if (!c.keepLineEndings && !s.content.endsWithNewline())
+		    s.fout.write('\n');	// terminate the last line
+		return;
+	    }
+	    // line terminators need to be canonicalized
+	    out.write(line);
+	    out.write('\n');
+	    skipBlanks = false;
+	}
 	while ((line = in.readLine()) != null) {
 	    if (skipBlanks) {
 		if (line.trim().length() == 0)
@@ -703,6 +1171,57 @@ public abstract class AbstractCopyright {
 	return "";
     }
 
+    /**
+     * Return the per-thread buffer used to collect the text of a comment,
+     * emptied.  Its content must be copied out, e.g., using
+     * commentText, before the next comment is read.
+     */
+    protected static StringBuilder commentBuffer() {
+	StringBuilder sb = commentBuffer.get();
+	sb.setLength(0);
+	return sb;
+    }
+
+    /**
+     * Append the part of the line from start to end, with trailing
+     * whitespace stripped, and a newline to the comment.  The same as
+     * comment.append(strip(line.substring(start, end))).append('\n'),
+     * without creating any strings.
+     */
+    protected static void appendStripped(StringBuilder comment, String line,
+				int start, int end) {
+	while (end > start) {
+	    char c = line.charAt(end - 1);
+	    if (c != ' ' && c != '\t')
+		break;
+	    end--;
+	}
+	comment.append(line, start, end).append('\n');
+    }
+
+    /**
+     * Return the index in the line after the prefix, if the line starts
+     * with the prefix; the end of the line, if the line is the beginning
+     * of the prefix; and otherwise zero.
+     */
+    protected static int skipPrefix(String line, String prefix) {
+	if (line.length() >= prefix.length())
+	    return line.startsWith(prefix) ? prefix.length() : 0;
+	else
+	    return prefix.startsWith(line) ? line.length() : 0;
+    }
+
+    /**
+     * Return the text of the comment, without one trailing blank line.
+     */
+    protected static String commentText(StringBuilder comment) {
+	int len = comment.length();
+	if (len >= 2 && comment.charAt(len - 1) == '\n' &&
+		comment.charAt(len - 2) == '\n')
+	    comment.setLength(len - 1);
+	return comment.toString();
+    }
+
     /**
      * Find the prefix (if any) for the current line.
      */
@@ -725,8 +1244,13 @@ public abstract class AbstractCopyright {
 
     /**
      * Does the file start with the specified prefix?
+     * Uses the already read beginning of the file, if this is
+     * the file currently being checked.
      */
-    protected static boolean startsWith(File file, String prefix) {
+    protected boolean startsWith(File file, String prefix) {
+	FileContent fc = c.content(file);
+	if (fc != null)
+	    return fc.startsWith(prefix);
 	BufferedReader r = null;
 	try {
 	    r = new BufferedReader(new FileReader(file));
@@ -753,38 +1277,51 @@ public abstract class AbstractCopyright {
 	}
     }
 
+    /**
+     * Read a copyright regular expression from the named resource,
+     * using the default licensor.
+     */
+    private static Pattern getCopyrightPattern(String name)
+				throws IOException {
+	return getCopyrightPattern(name, DEFAULT_LICENSOR);
+    }
+
     /**
      * Read a copyright regular expression from the named resource.
      * Assume the pattern is formatted as a Java comment, but canonicalize
      * the pattern to ignore language-specific comment characters.
      */
-    private static Pattern getCopyrightPattern(String name) throws IOException {
-	return copyrightToPattern(readCopyright(name, true, false));
+    private static Pattern getCopyrightPattern(String name, String lic)
+				throws IOException {
+	return copyrightToPattern(readCopyright(name, true, false, lic));
     }
 
     /**
      * Read a copyright regular expression from the file.
      */
-    private static Pattern getCopyrightPattern(File file) throws IOException {
-	return copyrightToPattern(readCopyright(file, true, false));
+    private static Pattern getCopyrightPattern(File file, String lic)
+				throws IOException {
+	return copyrightToPattern(readCopyright(file, true, false, lic));
     }
 
     /**
      * Read a copyright regular expression from the file.
      */
-    private static Pattern getDerivedCopyrightPattern(String base, String file)
-							throws IOException {
-	return copyrightToPattern(readCopyright(base, true, false) +
-		    derivedCopyrightIntro + readCopyright(file, true, true));
+    private static Pattern getDerivedCopyrightPattern(String base, String file,
+				String lic) throws IOException {
+	return copyrightToPattern(readCopyright(base, true, false, lic) +
+		    derivedCopyrightIntro +
+		    readCopyright(file, true, true, lic));
     }
 
     /**
      * Read a copyright regular expression from the file.
      */
-    private static Pattern getDerivedCopyrightPattern(File base, String file)
-							throws IOException {
-	return copyrightToPattern(readCopyright(base, true, false) +
-		    derivedCopyrightIntro + readCopyright(file, true, true));
+    private static Pattern getDerivedCopyrightPattern(File base, String file,
+				String lic) throws IOException {
+	return copyrightToPattern(readCopyright(base, true, false, lic) +
+		    derivedCopyrightIntro +
+		    readCopyright(file, true, true, lic));
     }
 
     private static Pattern copyrightToPattern(String comment) {
@@ -795,11 +1332,58 @@ public abstract class AbstractCopyright {
 	    "and open the template in the editor.\n" +
 	    "\n\\E)?");
 	copyright.append(comment);
-	return Pattern.compile(copyright.toString(), Pattern.MULTILINE);
+	Pattern pat = Pattern.compile(copyright.toString(), Pattern.MULTILINE);
+	requiredLines.put(pat, literalLines(comment));
+	if (hasLiteralYear(comment))
+	    templateYears = true;
+	return pat;
+    }
+
+    /**
+     * Does the quoted text of the pattern include a copyright line
+     * with a year?
+     */
+    private static boolean hasLiteralYear(String pattern) {
+	int start = 0;
+	int q;
+	while ((q = pattern.indexOf("\\Q", start)) >= 0) {
+	    int e = pattern.indexOf("\\E", q);
+	    if (e < 0)
+		e = pattern.length();
+	    for (String line : pattern.substring(q + 2, e).split("\n")) {
+		if (line.indexOf("Copyright") >= 0 && line.matches(".*[0-9].*"))
+		    return true;
+	    }
+	    start = e;
+	}
+	return false;
+    }
+
+    /**
+     * Find the lines of the pattern that are just quoted literal text.
+     * Any string the pattern matches must contain each of these lines.
+     *
+     * readCopyrightStream quotes each template line on its own and
+     * separates the lines with newlines, so a line of the pattern that's
+     * entirely a single quoted string is a complete template line.  Lines
+     * that contain the year or the optional groups (which always start
+     * or end on a line with other regular expression syntax) are skipped,
+     * as are empty lines, which tell us nothing.
+     */
+    private static String[] literalLines(String pattern) {
+	List<String> lits = new ArrayList<String>();
+	for (String line : pattern.split("\n")) {
+	    if (line.length() > 4 && line.startsWith("\\Q") &&
+		    line.endsWith("\\E") &&
+		    line.indexOf("\\E") == line.length() - 2)
+		lits.add(line.substring(2, line.length() - 2));
+	}
+	return lits.toArray(new String[lits.size()]);
     }
 
     private static String readCopyright(String name, boolean pattern,
-				boolean secondary) throws IOException {
+				boolean secondary, String lic)
+				throws IOException {
 	BufferedReader r = null;
 	try {
 	    InputStream is = Copyright.class.getResourceAsStream(
@@ -807,7 +1391,7 @@ public abstract class AbstractCopyright {
 	    if (is == null)
 		is = Copyright.class.getResourceAsStream(name);
 	    r = new BufferedReader(new InputStreamReader(is));
-	    return readCopyrightStream(r, pattern, secondary);
+	    return readCopyrightStream(r, pattern, secondary, lic);
 	} finally {
 	    if (r != null)
 		r.close();
@@ -815,11 +1399,12 @@ public abstract class AbstractCopyright {
     }
 
     private static String readCopyright(File file, boolean pattern,
-				boolean secondary) throws IOException {
+				boolean secondary, String lic)
+				throws IOException {
 	BufferedReader r = null;
 	try {
 	    r = new BufferedReader(new FileReader(file));
-	    return readCopyrightStream(r, pattern, secondary);
+	    return readCopyrightStream(r, pattern, secondary, lic);
 	} finally {
 	    if (r != null)
 		r.close();
@@ -828,12 +1413,15 @@ public abstract class AbstractCopyright {
 
     /**
      * Read a copyright from the BufferedReader.
-     * If pattern is true, convert it to a regular expression pattern.
+     * If pattern is true, convert it to a regular expression pattern,
+     * allowing other copyright lines before or after the line for
+     * the licensor "lic".
      * If secondary is true, this is a secondary license that's
      * concatenated to a primary license.
      */
     private static String readCopyrightStream(BufferedReader r, boolean pattern,
-				boolean secondary) throws IOException {
+				boolean secondary, String lic)
+				throws IOException {
 	StringBuilder copyright = new StringBuilder();
 	String line = r.readLine();	// read the "/*" line
 	boolean sawCopyright = false;
@@ -850,7 +1438,7 @@ public abstract class AbstractCopyright {
 		    sawCopyright = true;
 		    line = line.replace("YYYY", "\\E[-0-9, ]+\\Q");
 		    if (!secondary) {
-			if (line.contains(licensor))
+			if (line.contains(lic))
 			    line = line + "(\n" + COPYRIGHT_LINE + ")*";
 			else
 			    line = "(" + COPYRIGHT_LINE + "\n)*" + line;
@@ -877,14 +1465,14 @@ public abstract class AbstractCopyright {
      * Read the copyright text from the named resource.
      */
     private static String getCopyrightText(String name) throws IOException {
-	return readCopyright(name, false, false);
+	return readCopyright(name, false, false, null);
     }
 
     /**
      * Read the copyright text from the file.
      */
     private static String getCopyrightText(File file) throws IOException {
-	return readCopyright(file, false, false);
+	return readCopyright(file, false, false, null);
     }
 
     /**
@@ -895,7 +1483,7 @@ public abstract class AbstractCopyright {
 	if (c.mercurial)
 	    return lastChangedHg(file);
 	else if (c.git)
-	    return lastChangedGit(file);
+	    return c.gitHistory.lastChanged(new File(file));
 	else
 	    return lastChangedSvn(file);
     }
@@ -949,66 +1537,17 @@ public abstract class AbstractCopyright {
 	return lcd;
     }
 
-    private static String lastChangedGit(String file) throws IOException {
-        ProcessBuilder pb = new ProcessBuilder("git", "log", "-n", "1",
-            "--date=local", file);
-        pb.redirectErrorStream(true);
-        Process p = pb.start();
-        p.getOutputStream().close();
-        BufferedReader r = new BufferedReader(new InputStreamReader(
-            p.getInputStream()));
-        String lcd = "";
-        String line;
-        // date returned in the form 2006-09-04
-        while ((line = r.readLine()) != null) {
-            if (line.startsWith("Date:")) {
-                final String[] split = line.split(" ");
-                lcd = split[split.length - 1];
-            }
-        }
-        p.getInputStream().close();
-        try {
-            p.waitFor();
-        } catch (InterruptedException ex) {
-        }
-        return lcd;
-    }
-
-    /**
-     * Exec the "svn status" command to find out if the file has been
-     * modified locally.
+    /**
+     * Find out if the file has been modified locally, using the status
+     * of the working tree the file is in.
      */
     protected boolean isModified(String file) throws IOException {
-	ProcessBuilder pb;
-	if (c.mercurial)
-	    pb = new ProcessBuilder("hg", "status", file);
-	else if (c.git)
-	    pb = new ProcessBuilder("git", "status", "-s", file);
-	else
-	    pb = new ProcessBuilder("svn", "status", file);
-	pb.redirectErrorStream(true);
-	Process p = pb.start();
-	p.getOutputStream().close();
-	BufferedReader r = new BufferedReader(new InputStreamReader(
-						p.getInputStream()));
-	boolean modified = false;
-	String line;
-	while ((line = r.readLine()) != null) {
-	    line = line.trim();
-	    if (line.startsWith("M") || line.startsWith("A"))
-		modified = true;
-	}
-	p.getInputStream().close();
-	try {
-	    p.waitFor();
-	} catch (InterruptedException ex) {
-	}
-	return modified;
+	return c.scmStatus.isModified(new File(file));
     }
 
     protected void err(String s) {
 	if (!c.quiet)
-	    System.out.println(s);
-	c.errors++;
+	    c.out().println(s);
+	c.result.add(Count.ERRORS);
     }
 }
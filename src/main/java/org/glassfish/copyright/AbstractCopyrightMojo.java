@@ -1,7 +1,7 @@
 /*
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
  *
- * Copyright (c) 2011-2017 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011-2026 Oracle and/or its affiliates. All rights reserved.
  *
  * The contents of this file are subject to the terms of either the GNU
  * General Public License Version 2 only ("GPL") or the Common Development
@@ -74,6 +74,14 @@ public abstract class AbstractCopyrightMojo extends AbstractMojo {
      */
     protected String[] exclude;
 
+    /**
+     * Directory exclude list.  Directories with these names, or whose
+     * path names end with these names, aren't checked.
+     *
+     * @parameter
+     */
+    protected String[] excludeDirectory;
+
     /**
      * Base directory for project.
      * Should not need to be set.
@@ -125,6 +133,14 @@ public abstract class AbstractCopyrightMojo extends AbstractMojo {
      */
     protected boolean warn = true;
 
+    /**
+     * Only warn about extra copyrights that start within this many
+     * bytes of the end of the copyright header; zero for no limit.
+     *
+     * @parameter expression="${copyright.warnlimit}" default-value="0"
+     */
+    protected long warnLimit;
+
     /**
      * Don't check that the year is correct?
      *
@@ -139,6 +155,13 @@ public abstract class AbstractCopyrightMojo extends AbstractMojo {
      */
     protected boolean normalize;
 
+    /**
+     * Keep the line terminators used in repaired files?
+     *
+     * @parameter expression="${copyright.keeplineendings}"
+     */
+    protected boolean keepLineEndings;
+
     /**
      * Use comma instead of dash between years?
      *
@@ -162,6 +185,22 @@ public abstract class AbstractCopyrightMojo extends AbstractMojo {
      */
     protected boolean scmOnly;
 
+    /**
+     * Skip files ignored by .gitignore or .hgignore files?
+     * Ignored files that have been added to a git repository anyway
+     * are still checked, but with Mercurial they're skipped.
+     *
+     * @parameter expression="${copyright.skipignored}"
+     */
+    protected boolean skipIgnored;
+
+    /**
+     * With git, read the repository directly instead of running git?
+     *
+     * @parameter expression="${copyright.readgit}"
+     */
+    protected boolean readGit;
+
     /**
      * Check hidden files too?
      *
@@ -169,6 +208,38 @@ public abstract class AbstractCopyrightMojo extends AbstractMojo {
      */
     protected boolean doHidden;
 
+    /**
+     * Number of threads to use when checking directories.
+     *
+     * @parameter expression="${copyright.threads}" default-value="1"
+     */
+    protected int threads = 1;
+
+    /**
+     * Number of SCM lookups to run at once when checking directories,
+     * while the files after them are read; zero to do them in turn.
+     *
+     * @parameter expression="${copyright.lookupthreads}" default-value="0"
+     */
+    protected int lookupThreads;
+
+    /**
+     * File used to remember the files that passed the check, so that
+     * files that haven't changed since can be skipped.
+     *
+     * @parameter expression="${copyright.cachefile}"
+     */
+    protected File cacheFile;
+
+    /**
+     * With git, file used to remember the years in which files were
+     * last changed, so that the history only has to be read again for
+     * commits made since.
+     *
+     * @parameter expression="${copyright.yearcachefile}"
+     */
+    protected File yearCacheFile;
+
     /**
      * Copyright template file.
      *
@@ -224,6 +295,12 @@ public abstract class AbstractCopyrightMojo extends AbstractMojo {
 		c.addExclude(ex);
 	    }
 	}
+	if (excludeDirectory != null) {
+	    for (String dir : excludeDirectory) {
+		log.debug("copyright: exclude directory: " + dir);
+		c.addExcludeDir(dir);
+	    }
+	}
 
 	if (scm == null || scm.equalsIgnoreCase("svn"))
 	    ;	// nothing to do, default case
@@ -237,12 +314,20 @@ public abstract class AbstractCopyrightMojo extends AbstractMojo {
 
 	c.debug = debug;
 	c.warn = warn;
+	c.warnLimit = warnLimit;
 	c.ignoreYear = ignoreYear;
 	c.normalize = normalize;
+	c.keepLineEndings = keepLineEndings;
 	c.useComma = useComma;
 	c.preserveCopyrights = preserveCopyrights;
 	c.skipNoSVN = scmOnly;
+	c.skipIgnored = skipIgnored;
+	c.readGit = readGit;
 	c.doHidden = doHidden;
+	c.threads = threads;
+	c.lookupThreads = lookupThreads;
+	c.cacheFile = cacheFile;
+	c.yearCacheFile = yearCacheFile;
 
 	if (templateFile != null)
 	    c.correctTemplate = 
@@ -270,6 +355,13 @@ public abstract class AbstractCopyrightMojo extends AbstractMojo {
 	    throw new MojoExecutionException(
 			    "IOException while checking copyrights", ioex);
 	}
+	CheckResult r = c.getResult();
+	log.debug("copyright: header cache hits: " +
+		    r.get(CheckResult.Count.VERDICT_HITS) + ", misses: " +
+		    r.get(CheckResult.Count.VERDICT_MISSES));
+	log.debug("copyright: year lookups: " +
+		    r.get(CheckResult.Count.LOOKUPS) + ", avoided: " +
+		    r.get(CheckResult.Count.LOOKUPS_AVOIDED));
     }
 
     /**
@@ -1,7 +1,7 @@
 /*
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
  *
- * Copyright (c) 2010-2017 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010-2026 Oracle and/or its affiliates. All rights reserved.
  *
  * The contents of this file are subject to the terms of either the GNU
  * General Public License Version 2 only ("GPL") or the Common Development
@@ -54,7 +54,9 @@ import java.io.*;
 import java.util.regex.*;
 
 public class AsciidocCopyright extends CommonCopyright {
-    private String firstComment;
+    // the delimiter that started the comment, per thread since
+    // files may be checked in parallel
+    private final ThreadLocal<String> firstComment = new ThreadLocal<String>();
     private static final String commentRegex = "////+";
     private static final Pattern pat = Pattern.compile(commentRegex);
     private static final String commentDelim =
@@ -80,7 +82,7 @@ public class AsciidocCopyright extends CommonCopyright {
      */
     protected boolean isCommentStart(String line) {
 	if (line != null && line.matches(commentRegex)) {
-	    firstComment = line;
+	    firstComment.set(line);
 	    return true;
 	} else
 	    return false;
@@ -90,7 +92,7 @@ public class AsciidocCopyright extends CommonCopyright {
      * Is this the end of a comment?
      */
     protected boolean isCommentEnd(String line) {
-	return line.equals(firstComment);
+	return line.equals(firstComment.get());
     }
 
     /**
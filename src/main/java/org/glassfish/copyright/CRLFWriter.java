@@ -45,13 +45,21 @@ import java.io.*;
 /**
  * Convert lines into the canonical Windows format, that is,
  * terminate lines with CRLF. <p>
+ *
+ * Lines can also be terminated with another line terminator,
+ * such as the one used in a file being repaired.
  */
 public class CRLFWriter extends FilterWriter {
     protected int lastb = -1;
-    protected static char[] newline = new char[] { '\r', '\n' };
+    protected final char[] newline;
 
     public CRLFWriter(Writer out) {
+	this(out, "\r\n");
+    }
+
+    public CRLFWriter(Writer out, String terminator) {
 	super(out);
+	newline = terminator.toCharArray();
     }
 
     @Override
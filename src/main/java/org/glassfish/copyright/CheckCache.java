@@ -0,0 +1,300 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+/**
+ * Remember the files that passed the copyright check, so that a later
+ * run can skip the files that haven't changed since.
+ *
+ * The cache is a text file.  The first line is a fingerprint of the
+ * version of this tool, the templates, the options that affect the
+ * result of the check, and the current year; if any of these differ
+ * the entire cache is ignored.  Each following line describes a file
+ * that passed the check, giving its size, last modified time, content
+ * hash, and absolute path, separated by tabs.  A file is skipped if its
+ * size and last modified time match, or if its size and content hash
+ * match.
+ *
+ * Files that failed the check are never recorded; they're always
+ * checked again so that their errors are reported on every run.
+ * Only the files that passed in this run, or were skipped because they
+ * passed before, are written, so files that were deleted or renamed,
+ * or not checked in this run, are dropped from the cache.
+ *
+ * The hash lets a file be skipped when its content is unchanged but its
+ * last modified time isn't, e.g., after it's checked out again into a
+ * fresh workspace.  So the hash of each file that passes is computed,
+ * reading the file again, unless the cache already has the hash for
+ * the same size and last modified time, e.g., from a cache that's
+ * being ignored because the year or options changed.
+ */
+
+package org.glassfish.copyright;
+
+import java.io.*;
+import java.security.*;
+import java.util.*;
+
+public class CheckCache {
+    private final File cacheFile;
+    private final String fingerprint;
+    // absolute path -> entry read from the cache file
+    private final Map<String, Entry> loaded = new HashMap<String, Entry>();
+    // did the cache file have the same fingerprint?
+    private boolean valid;
+    // absolute path -> entry for files that passed in this run
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+    // the number of entries in the cache file as last read or written
+    private int written;
+    private boolean dirty;
+
+    private static class Entry {
+	final long size;
+	final long lastModified;
+	final String hash;
+
+	Entry(long size, long lastModified, String hash) {
+	    this.size = size;
+	    this.lastModified = lastModified;
+	    this.hash = hash;
+	}
+    }
+
+    /**
+     * Use the cache in cacheFile for the options of c.
+     */
+    public CheckCache(File cacheFile, Copyright c) {
+	this.cacheFile = cacheFile;
+	this.fingerprint = fingerprint(c);
+    }
+
+    /**
+     * Read the cache file, if it exists.  The files in it are only
+     * skipped if it was written with the same fingerprint, but the
+     * hashes of the files can still be used.
+     */
+    public synchronized void load() throws IOException {
+	loaded.clear();
+	entries.clear();
+	valid = false;
+	written = 0;
+	if (!cacheFile.exists())
+	    return;
+	BufferedReader r = null;
+	try {
+	    r = new BufferedReader(new InputStreamReader(
+				new FileInputStream(cacheFile), "utf-8"));
+	    String line = r.readLine();
+	    if (line == null)
+		return;
+	    valid = line.equals(fingerprint);
+	    if (!valid)
+		dirty = true;	// rewrite it with the new fingerprint
+	    while ((line = r.readLine()) != null) {
+		String[] f = line.split("\t", 4);
+		if (f.length != 4)
+		    continue;
+		try {
+		    loaded.put(f[3], new Entry(Long.parseLong(f[0]),
+						Long.parseLong(f[1]), f[2]));
+		} catch (NumberFormatException ex) {
+		    // ignore it
+		}
+	    }
+	} finally {
+	    if (r != null)
+		r.close();
+	}
+	written = loaded.size();
+    }
+
+    /**
+     * Write the cache file, if anything changed, including if
+     * files in it weren't seen in this run.
+     * The new file is written next to the old one and then renamed,
+     * so an interrupted run never leaves a partial cache file.
+     */
+    public synchronized void save() throws IOException {
+	// every entry seen is in the cache file unless it's dirty
+	if (!dirty && entries.size() == written)
+	    return;
+	File dir = cacheFile.getAbsoluteFile().getParentFile();
+	if (dir != null && !dir.isDirectory())
+	    dir.mkdirs();
+	File tmp = new File(cacheFile.getPath() + ".tmp");
+	PrintWriter w = new PrintWriter(new BufferedWriter(
+	    new OutputStreamWriter(new FileOutputStream(tmp), "utf-8")));
+	try {
+	    w.print(fingerprint + "\n");
+	    for (Map.Entry<String, Entry> me : entries.entrySet()) {
+		Entry e = me.getValue();
+		w.print(e.size + "\t" + e.lastModified + "\t" + e.hash + "\t" +
+			    me.getKey() + "\n");
+	    }
+	} finally {
+	    w.close();
+	}
+	if (w.checkError())
+	    throw new IOException("Can't write cache file: " + tmp);
+	if (!tmp.renameTo(cacheFile)) {
+	    cacheFile.delete();
+	    if (!tmp.renameTo(cacheFile))
+		throw new IOException("Can't rename " + tmp + " to " +
+					cacheFile);
+	}
+	written = entries.size();
+	dirty = false;
+    }
+
+    /**
+     * Did the file, which has the specified size and last modified time,
+     * pass the check the last time, and is it unchanged?
+     */
+    public boolean isUnchanged(File file, long size, long lastModified)
+				throws IOException {
+	String path = file.getAbsolutePath();
+	Entry e;
+	synchronized (this) {
+	    e = valid ? loaded.get(path) : null;
+	}
+	if (e == null)
+	    return false;
+	if (size != e.size)
+	    return false;
+	if (lastModified == e.lastModified) {
+	    synchronized (this) {
+		entries.put(path, e);
+	    }
+	    return true;
+	}
+	// touched, or checked out again; see if the content is the same
+	String hash = hash(file);
+	if (!hash.equals(e.hash))
+	    return false;
+	synchronized (this) {
+	    entries.put(path, new Entry(size, lastModified, hash));
+	    dirty = true;
+	}
+	return true;
+    }
+
+    /**
+     * Remember that the file passed the check.
+     */
+    public void passed(File file) throws IOException {
+	String path = file.getAbsolutePath();
+	long size = file.length();
+	long lastModified = file.lastModified();
+	Entry e;
+	synchronized (this) {
+	    e = loaded.get(path);
+	}
+	if (e == null || e.size != size || e.lastModified != lastModified)
+	    e = new Entry(size, lastModified, hash(file));
+	synchronized (this) {
+	    entries.put(path, e);
+	    dirty = true;
+	}
+    }
+
+    /**
+     * Forget about the file, e.g., because it failed the check.
+     */
+    public synchronized void failed(File file) {
+	if (entries.remove(file.getAbsolutePath()) != null)
+	    dirty = true;
+    }
+
+    /**
+     * Return a hex SHA-1 hash of the content of the file.
+     */
+    private static String hash(File file) throws IOException {
+	MessageDigest md;
+	try {
+	    md = MessageDigest.getInstance("SHA-1");
+	} catch (NoSuchAlgorithmException ex) {
+	    throw new IOException(ex.toString());
+	}
+	InputStream in = new FileInputStream(file);
+	try {
+	    byte[] buf = new byte[8192];
+	    int n;
+	    while ((n = in.read(buf)) > 0)
+		md.update(buf, 0, n);
+	} finally {
+	    in.close();
+	}
+	StringBuilder sb = new StringBuilder();
+	for (byte b : md.digest())
+	    sb.append(String.format("%02x", b & 0xff));
+	return sb.toString();
+    }
+
+    /**
+     * Describe everything other than the content of a file that
+     * determines whether the file passes the check.
+     */
+    private static String fingerprint(Copyright c) {
+	StringBuilder sb = new StringBuilder();
+	sb.append("copyright-cache ").append(Version.getVersion());
+	sb.append(" year=").append(AbstractCopyright.thisYear);
+	sb.append(" scm=").append(c.mercurial ? "hg" : c.git ? "git" : "svn");
+	sb.append(" flags=");
+	sb.append(c.warn ? 'w' : '-');
+	sb.append(c.quiet ? 'q' : '-');	// no warnings when quiet
+	sb.append(c.ignoreYear ? 'y' : '-');
+	sb.append(c.normalize ? 'N' : '-');
+	sb.append(c.skipNoSVN ? 's' : '-');
+	sb.append(c.doJava ? 'j' : '-');
+	sb.append(c.doXml ? 'x' : '-');
+	sb.append(c.doProps ? 'p' : '-');
+	sb.append(c.doText ? 't' : '-');
+	sb.append(" warnLimit=").append(c.warnLimit);
+	sb.append(" correct=").append(template(c.correctTemplate));
+	sb.append(" alternate=").append(template(c.alternateTemplate));
+	sb.append(" bsd=").append(template(c.correctBSDTemplate));
+	return sb.toString();
+    }
+
+    private static String template(File f) {
+	if (f == null)
+	    return "-";
+	return f.getAbsolutePath() + "@" + f.lastModified();
+    }
+}
@@ -63,8 +63,9 @@ public class CheckCopyrightMojo extends AbstractCopyrightMojo {
 
 	check(c);
 
-	if (c.errors > 0) {
-	    log.error("Errors: " + c.errors);
+	long errors = c.getResult().getErrors();
+	if (errors > 0) {
+	    log.error("Errors: " + errors);
 	    throw new MojoExecutionException("Copyright checking failed");
 	}
     }
@@ -0,0 +1,106 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+/**
+ * The results of checking files: the number of files with each kind
+ * of error, the number of errors reported, and statistics about the
+ * check.  Each Copyright creates one for its run, and returns it from
+ * {@link Copyright#check check}, so runs in the same JVM don't share
+ * counts.  The counts may be updated by all the threads checking and
+ * repairing files at once.
+ */
+
+package org.glassfish.copyright;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CheckResult {
+    /**
+     * The things that are counted.
+     */
+    public enum Count {
+	MISSING,		// no copyright
+	EMPTY,			// empty copyright
+	SUN,			// Sun copyright
+	SUN_APACHE,		// Sun+Apache copyright
+	SUN_BSD,		// Sun BSD copyright
+	OLD_CDDL,		// old CDDL copyright
+	NO_CE,			// CDDL+GPL copyright without CE
+	WRONG,			// some other wrong copyright
+	NO_YEAR,		// no copyright year
+	DATE,			// wrong copyright year
+	ERRORS,			// errors reported
+	VERDICT_HITS,		// headers found in the header cache
+	VERDICT_MISSES,		// headers not found in the header cache
+	LOOKUPS,		// years looked up in the SCM
+	LOOKUPS_AVOIDED,	// years that didn't need to be looked up
+	REPAIRED,		// files repaired
+	REPAIR_FAILED		// files that couldn't be repaired
+    }
+
+    private final AtomicLong[] counts =
+				new AtomicLong[Count.values().length];
+
+    public CheckResult() {
+	for (int i = 0; i < counts.length; i++)
+	    counts[i] = new AtomicLong();
+    }
+
+    /**
+     * Count one more of "what".
+     */
+    void add(Count what) {
+	counts[what.ordinal()].incrementAndGet();
+    }
+
+    /**
+     * Return the number of "what" counted so far.
+     */
+    public long get(Count what) {
+	return counts[what.ordinal()].get();
+    }
+
+    /**
+     * Return the number of errors reported.
+     */
+    public long getErrors() {
+	return get(Count.ERRORS);
+    }
+}
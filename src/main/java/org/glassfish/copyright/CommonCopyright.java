@@ -69,7 +69,7 @@ public abstract class CommonCopyright extends AbstractCopyright {
      * Read the first comment block in the file.
      */
     protected String readComment(BufferedReader r) throws IOException {
-	StringBuilder comment = new StringBuilder();
+	StringBuilder comment = commentBuffer();
 	String line;
 	// skip blank lines at beginning of file
 	while ((line = r.readLine()) != null) {
@@ -95,20 +95,10 @@ public abstract class CommonCopyright extends AbstractCopyright {
 		break;		// end of comment
 	    if (line.indexOf("*/") >= 0)
 		break;		// end of comment
-	    if (line.length() >= prefix.length()) {
-		if (line.startsWith(prefix))
-		    line = line.substring(prefix.length());
-	    } else {
-		if (prefix.startsWith(line))
-		    line = "";
-	    }
-	    comment.append(strip(line)).append('\n');
+	    appendStripped(comment, line, skipPrefix(line, prefix),
+							line.length());
 	}
-	int len = comment.length();
-	if (len >= 2 && comment.charAt(len - 1) == '\n' &&
-		comment.charAt(len - 2) == '\n')
-	    comment.setLength(len - 1);
-	return comment.toString();
+	return commentText(comment);
     }
 
     /**
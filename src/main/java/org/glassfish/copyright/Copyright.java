@@ -1,7 +1,7 @@
 /*
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
  *
- * Copyright (c) 2010-2017 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010-2026 Oracle and/or its affiliates. All rights reserved.
  *
  * The contents of this file are subject to the terms of either the GNU
  * General Public License Version 2 only ("GPL") or the Common Development
@@ -44,14 +44,18 @@
  *
  * Usage: java -jar copyright.jar
  *		[-w] -[y] [-r] [-n] [-s] [-h] [-m] [-g] [-c] [-q] [-j] [-x] [-p]
- *		[-t] [-N] [-O] [-X pat] [-C file] [-A file] [-B file] [-P] [-V]
- *		[-v] [files ...]
+ *		[-t] [-N] [-O] [-X pat] [-D dir] [-C file] [-A file] [-B file]
+ *		[-P] [-V]
+ *		[-v] [-T threads] [-L lookups] [-K file] [-I] [-G] [-Y file]
+ *		[-W bytes] [-E] [-R repairs] [files ...]
  *
  * Options:
  *	-w	suppress warnings
+ *	-W	only warn about extra copyrights within bytes of the header
  *	-y	don't check that year is correct (much faster)
  *	-r	repair files that are wrong
  *	-n	with -r, leave the updated file in file.new
+ *	-E	with -r, keep the line terminators used in the file
  *	-s	skip files not under SVN (slower)
  *	-h	check hidden files too
  *	-m	use Mercurial instead of SVN
@@ -64,13 +68,21 @@
  *	-t	check other text files
  *	-N	normalize format of repaired copyright to match template
  *	-O	use comma instead of dash in years when repairing files
- *	-X	exclude files matching pat (substring only)
+ *	-X	exclude files matching pat (substring, glob:pat, or regex:pat)
+ *	-D	exclude directories named dir (or path suffix, glob:, regex:)
  *	-C	file containing correct copyright template, using Java syntax
  *	-A	file containing alternate correct copyright template
  *	-B	file containing correct BSD copyright template
  *	-P	preserve original copyrights
  *	-v	verbose output
  *	-V	print version number
+ *	-T	number of threads to use when checking directories
+ *	-L	number of SCM lookups to run at once when checking directories
+ *	-R	with -r, number of files to repair at once
+ *	-K	cache file used to skip files unchanged since they last passed
+ *	-I	skip files ignored by .gitignore or .hgignore (faster than -s)
+ *	-G	with -g, read the git repository directly instead of running git
+ *	-Y	with -g, cache file used to remember when files last changed
  *
  * @author	Bill Shannon
  */
@@ -78,9 +90,14 @@
 package org.glassfish.copyright;
 
 import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.regex.*;
 
+import org.glassfish.copyright.CheckResult.Count;
+
 public class Copyright {
 
     public boolean debug = false;
@@ -90,11 +107,14 @@ public class Copyright {
     public boolean doRepair = false;
     public boolean dontUpdate = false;
     public boolean normalize = false;
+    public boolean keepLineEndings = false;
     public boolean skipNoSVN = false;
+    public boolean skipIgnored = false;
+    public boolean readGit = false;
     public boolean doHidden = false;
     public boolean mercurial = false;
     public boolean git = false;
-    public static boolean count = false;
+    public boolean count = false;
     public boolean quiet = false;
     public boolean doJava = false;
     public boolean doXml = false;
@@ -102,23 +122,21 @@ public class Copyright {
     public boolean doText = false;
     public boolean preserveCopyrights = false;
     public boolean verbose = false;
+    public int threads = 1;
+    public int lookupThreads = 0;
+    public int repairThreads = 0;
+    public long warnLimit = 0;
+    public File cacheFile;
+    public File yearCacheFile;
     public File correctTemplate;
     public File alternateTemplate;
     public File correctBSDTemplate;
 
-    public int nMissing;
-    public int nEmpty;
-    public int nSun;
-    public int nSunApache;
-    public int nSunBSD;
-    public int nOldCDDL;
-    public int nNoCE;
-    public int nWrong;
-    public int nNoYear;
-    public int nDate;
-    public int errors;
+    // the counts for this run
+    final CheckResult result = new CheckResult();
 
     public List<String> excludes = new ArrayList<String>();
+    public List<String> excludeDirs = new ArrayList<String>();
 
     private AbstractCopyright javaCopyright;
     private AbstractCopyright xmlCopyright;
@@ -130,11 +148,47 @@ public class Copyright {
     private AbstractCopyright adCopyright;
     private AbstractCopyright jspCopyright;
 
+    // last changed years for files in git repositories
+    GitHistory gitHistory;
+    // files tracked in git repositories
+    final GitIndex gitIndex = new GitIndex();
+    // locally modified files
+    ScmStatus scmStatus;
+    // files that passed the last time they were checked
+    private CheckCache cache;
+
+    // when checking in parallel, the files being checked, in walk order
+    private ExecutorService pool;
+    private LinkedList<Future<Checked>> pending;
+    // when looking up years in the background, the lookups being done
+    private ExecutorService lookups;
+    // the rest of the check waiting for its lookup, for the file being
+    // checked by this thread
+    private final ThreadLocal<Future<Checked>> yearCheck =
+					new ThreadLocal<Future<Checked>>();
+    // when repairing files in the background, the repairs being done
+    private ExecutorService repairs;
+    // the repair of the file being checked by this thread
+    private final ThreadLocal<Future<String>> repair =
+					new ThreadLocal<Future<String>>();
+    private ByteArrayOutputStream walkOutput;
+    // per-thread buffer for the output from checking a single file
+    private final ThreadLocal<PrintStream> output =
+						new ThreadLocal<PrintStream>();
+    // the compiled excludes, for the current walk
+    private ExcludeMatcher excludeMatcher;
+    private DirectoryExcludes directoryExcludes;
+    // files ignored by the SCM, if skipping them
+    private ScmIgnores scmIgnores;
+    // per-thread content of the file being checked
+    private final ThreadLocal<FileContent> content =
+						new ThreadLocal<FileContent>();
+
     public static final List<String> ignoredDirs =
 		    Collections.unmodifiableList(
 			Arrays.asList(".m2", ".svn", ".hg", ".git", "target"));
 
-    private void init() {
+    private void init() throws IOException {
 	if (javaCopyright == null) {
 	    javaCopyright = new JavaCopyright(this);
 	    xmlCopyright = new XmlCopyright(this);
@@ -145,46 +199,135 @@ public class Copyright {
 	    mdCopyright = new MarkdownCopyright(this);
 	    adCopyright = new AsciidocCopyright(this);
 	    jspCopyright = new JspCopyright(this);
+	    gitHistory = new GitHistory(git && readGit,
+					git ? yearCacheFile : null);
+	    scmStatus = new ScmStatus(mercurial ? "hg" : git ? "git" : "svn",
+					git && readGit ? gitIndex : null);
 
 	    if (!doJava && !doXml && !doProps && !doText)
 		// by default, do them all
 		doJava = doXml = doProps = doText = true;
+
+	    if (cacheFile != null) {
+		cache = new CheckCache(cacheFile, this);
+		cache.load();
+	    }
 	}
     }
 
     /**
      * Check the file.  If the file is a directory, recurse.
+     * Return the results of all the checks done so far.
      */
-    public void check(File file) throws IOException {
+    public CheckResult check(File file) throws IOException {
 	init();
-	check(file, false);
+	walk(file, false);
+	return result;
     }
 
     /**
      * Check a Maven project directory.
      * Skip subdirectories that contain a pom.xml file.
+     * Return the results of all the checks done so far.
      */
-    public void checkMaven(File file) throws IOException {
+    public CheckResult checkMaven(File file) throws IOException {
 	init();
-	if (!file.exists()) {
-	    System.out.println(file + ": doesn't exist");
-	    return;
+	walk(file, true);
+	return result;
+    }
+
+    /**
+     * Return the results of all the checks done so far.
+     */
+    public CheckResult getResult() {
+	return result;
+    }
+
+    /**
+     * Walk the file tree starting at file.  If more than one thread
+     * was requested and file is a directory, the files are checked
+     * by a pool of worker threads while the walk continues.  The output
+     * for each file is buffered and printed in walk order, so the output
+     * is the same no matter how many threads are used.
+     */
+    private void walk(File file, boolean maven) throws IOException {
+	excludeMatcher = new ExcludeMatcher(excludes);
+	directoryExcludes = new DirectoryExcludes(excludeDirs);
+	if (skipIgnored && scmIgnores == null)
+	    scmIgnores = new ScmIgnores();
+	try {
+	    walkFiles(file, maven);
+	} finally {
+	    if (cache != null)
+		cache.save();
+	    gitHistory.save();
 	}
-	if (!file.canRead()) {
-	    System.out.println(file + ": can't read");
+    }
+
+    private void walkFiles(File file, boolean maven) throws IOException {
+	if ((threads <= 1 && lookupThreads <= 0 &&
+		(repairThreads <= 0 || !doRepair)) || !file.isDirectory()) {
+	    if (maven)
+		checkMavenDir(file);
+	    else
+		check(file, false);
 	    return;
 	}
+
+	if (debug)
+	    System.out.println("Checking " + file + " using " + threads +
+				" threads, " + lookupThreads +
+				" lookups, and " + repairThreads + " repairs");
+	if (threads > 1)
+	    pool = Executors.newFixedThreadPool(threads);
+	if (lookupThreads > 0)
+	    lookups = Executors.newFixedThreadPool(lookupThreads);
+	if (repairThreads > 0 && doRepair)
+	    repairs = Executors.newFixedThreadPool(repairThreads);
+	pending = new LinkedList<Future<Checked>>();
+	walkOutput = new ByteArrayOutputStream();
+	output.set(new PrintStream(walkOutput, true));
+	try {
+	    if (maven)
+		checkMavenDir(file);
+	    else
+		check(file, false);
+	    drain(0);
+	} finally {
+	    output.remove();
+	    if (pool != null)
+		pool.shutdownNow();
+	    if (lookups != null)
+		lookups.shutdownNow();
+	    if (repairs != null)
+		repairs.shutdownNow();
+	    pool = null;
+	    lookups = null;
+	    repairs = null;
+	    pending = null;
+	    walkOutput = null;
+	}
+    }
+
+    /**
+     * Check the top level of a Maven project directory.
+     */
+    private void checkMavenDir(File file) throws IOException {
+	BasicFileAttributes attrs = stat(file);
+	if (attrs == null)
+	    return;
 	if (!doHidden && file.isHidden() && !file.getName().equals("."))
 	    return;
-	if (file.isDirectory()) {
+	if (attrs.isDirectory()) {
 	    String name = file.getName();
 	    if (ignoredDirs.contains(name))
 		return;
-	    File[] files = file.listFiles();
-	    for (File f : files)
-		check(f, true);
+	    if (isExcludedDir(file))
+		return;
+	    for (Map.Entry<File, BasicFileAttributes> e : list(file).entrySet())
+		check(e.getKey(), e.getValue(), true);
 	} else
-	    checkFile(file);
+	    checkOrSubmit(file, attrs);
     }
 
     /**
@@ -193,104 +336,443 @@ public class Copyright {
      * a pom.xml file.
      */
     private void check(File file, boolean skipMavenDir) throws IOException {
-	if (!file.exists()) {
-	    System.out.println(file + ": doesn't exist");
+	BasicFileAttributes attrs = stat(file);
+	if (attrs != null)
+	    check(file, attrs, skipMavenDir);
+    }
+
+    /**
+     * Check the file, whose attributes have already been read.
+     */
+    private void check(File file, BasicFileAttributes attrs,
+				boolean skipMavenDir) throws IOException {
+	if (attrs.isSymbolicLink()) {
+	    // only reported for links that couldn't be followed
+	    out().println(file + ": doesn't exist");
 	    return;
 	}
-	if (!file.canRead()) {
-	    System.out.println(file + ": can't read");
+	if (!doHidden && file.isHidden() && !file.getName().equals(".")) {
+	    if (verbose)
+		out().println("Hidden file skipped: " + file);
 	    return;
 	}
-	if (!doHidden && file.isHidden() && !file.getName().equals(".")) {
+	if (scmIgnores != null &&
+		scmIgnores.isIgnored(file, attrs.isDirectory()) &&
+		!isTracked(file, attrs.isDirectory())) {
 	    if (verbose)
-		System.out.println("Hidden file skipped: " + file);
+		out().println("Ignored by SCM, skipped: " + file);
 	    return;
 	}
-	if (file.isDirectory()) {
+	if (attrs.isDirectory()) {
 	    String name = file.getName();
 	    if (ignoredDirs.contains(name)) {
 		if (verbose)
-		    System.out.println("Ignored directory skipped: " + file);
+		    out().println("Ignored directory skipped: " + file);
+		return;
+	    }
+	    if (isExcludedDir(file))
+		return;
+	    if (skipNoSVN && git &&
+		    Boolean.FALSE.equals(gitIndex.hasTracked(file))) {
+		if (verbose)
+		    out().println("Not under version control, skipped: " +
+					file);
 		return;
 	    }
 	    if (skipMavenDir) {
 		File pom = new File(file, "pom.xml");
 		if (pom.exists()) {
 		    if (verbose)
-			System.out.println("Maven subproject skipped: " + file);
+			out().println("Maven subproject skipped: " + file);
 		    return;
 		}
 	    }
-	    File[] files = file.listFiles();
-	    for (File f : files)
-		check(f);
+	    for (Map.Entry<File, BasicFileAttributes> e : list(file).entrySet())
+		check(e.getKey(), e.getValue(), false);
 	} else
-	    checkFile(file);
+	    checkOrSubmit(file, attrs);
+    }
+
+    /**
+     * Has the file, or a file in the directory, been added to a git
+     * repository, even though it's ignored?  Then it's checked, the
+     * same as without -I.  Mercurial files aren't looked up, so an
+     * ignored file that's tracked by Mercurial is still skipped.
+     */
+    private boolean isTracked(File file, boolean isDir) {
+	return Boolean.TRUE.equals(isDir ? gitIndex.hasTracked(file) :
+					    gitIndex.isTracked(file));
+    }
+
+    /**
+     * Is the directory excluded, either by a directory exclude or because
+     * an exclude pattern would exclude every file in it?
+     */
+    private boolean isExcludedDir(File dir) {
+	String ex = directoryExcludes.match(dir);
+	if (ex != null) {
+	    if (verbose)
+		out().println("Excluded directory \"" + ex + "\": " + dir);
+	    return true;
+	}
+	ex = excludeMatcher.matchDirectory(dir.getPath());
+	if (ex != null) {
+	    if (verbose)
+		out().println("Excluded by pattern \"" + ex + "\": " + dir);
+	    return true;
+	}
+	return false;
+    }
+
+    /**
+     * Read the attributes of the file, following symbolic links.
+     * If they can't be read, report it and return null.
+     */
+    private BasicFileAttributes stat(File file) {
+	try {
+	    return Files.readAttributes(file.toPath(),
+					BasicFileAttributes.class);
+	} catch (NoSuchFileException ex) {
+	    out().println(file + ": doesn't exist");
+	} catch (IOException ex) {
+	    out().println(file + ": can't read");
+	}
+	return null;
+    }
+
+    /**
+     * List the directory, returning the entries in sorted order
+     * along with their attributes.  The attributes are read once,
+     * while listing the directory, rather than separately for each
+     * property of each entry that's needed.  Entries that can't be
+     * read are reported and left out.
+     */
+    private SortedMap<File, BasicFileAttributes> list(final File dir)
+				throws IOException {
+	final SortedMap<File, BasicFileAttributes> entries =
+				new TreeMap<File, BasicFileAttributes>();
+	final Path top = dir.toPath();
+	Files.walkFileTree(top, EnumSet.of(FileVisitOption.FOLLOW_LINKS), 1,
+		new SimpleFileVisitor<Path>() {
+	    public FileVisitResult visitFile(Path path,
+				    BasicFileAttributes attrs) {
+		entries.put(path.toFile(), attrs);
+		return FileVisitResult.CONTINUE;
+	    }
+
+	    public FileVisitResult visitFileFailed(Path path,
+				    IOException ex) {
+		out().println(path.toFile() + ": can't read");
+		return FileVisitResult.CONTINUE;
+	    }
+	});
+	return entries;
+    }
+
+    /**
+     * The output from checking a file, the repair of the file that's
+     * being done by a repair thread, if any, and the rest of the check
+     * that's waiting for the SCM lookup, if any.
+     */
+    private static class Checked {
+	final String output;
+	final Future<String> repair;
+	final Future<Checked> rest;
+
+	Checked(String output, Future<String> repair, Future<Checked> rest) {
+	    this.output = output;
+	    this.repair = repair;
+	    this.rest = rest;
+	}
+    }
+
+    /**
+     * Check the file now, or hand it to a worker thread if
+     * we're checking in parallel.  If we're looking up years in
+     * the background, the file is checked now but the check of
+     * the year is finished once the year has been looked up.
+     */
+    private void checkOrSubmit(final File file,
+				final BasicFileAttributes attrs)
+				throws IOException {
+	if (pending == null) {
+	    checkFile(file, attrs);
+	    return;
+	}
+	queueWalkOutput();
+	Callable<Checked> task = new Callable<Checked>() {
+	    public Checked call() throws IOException {
+		return capture(new Check() {
+		    public void run() throws IOException {
+			checkFile(file, attrs);
+		    }
+		});
+	    }
+	};
+	if (pool != null) {
+	    pending.add(pool.submit(task));
+	} else {
+	    FutureTask<Checked> t = new FutureTask<Checked>(task);
+	    t.run();
+	    pending.add(t);
+	}
+	// don't let the walk get too far ahead of the checking
+	drain(Math.max(threads, Math.max(lookupThreads, repairThreads)) * 4);
+    }
+
+    /**
+     * A part of the check of a file.
+     */
+    private interface Check {
+	void run() throws IOException;
+    }
+
+    /**
+     * Run the part of a check done by this thread, returning its
+     * output along with the work it handed to other threads.
+     */
+    private Checked capture(Check check) throws IOException {
+	ByteArrayOutputStream bos = new ByteArrayOutputStream();
+	PrintStream prev = output.get();
+	output.set(new PrintStream(bos, true));
+	Future<String> r;
+	Future<Checked> yc;
+	try {
+	    check.run();
+	} finally {
+	    if (prev != null)
+		output.set(prev);
+	    else
+		output.remove();
+	    r = repair.get();
+	    yc = yearCheck.get();
+	    repair.remove();
+	    yearCheck.remove();
+	}
+	return new Checked(bos.toString(), r, yc);
+    }
+
+    /**
+     * Called by the checkers when all that's left is to compare the
+     * last year in the copyright with the year the file was last
+     * changed.  If we're looking up years in the background, start
+     * the lookup, which finishes the check once the year is known,
+     * and return true.  Otherwise, return false.
+     */
+    boolean deferYearCheck(final AbstractCopyright checker, final File file,
+		final String comment, final String lastYear, final String lc,
+		final boolean warned) {
+	if (lookups == null || pending == null)
+	    return false;
+	yearCheck.set(lookups.submit(new Callable<Checked>() {
+	    public Checked call() throws IOException {
+		final String year = checker.scmYear(file, lc);
+		return capture(new Check() {
+		    public void run() throws IOException {
+			checker.checkYear(file, comment, lastYear, year,
+						warned);
+		    }
+		});
+	    }
+	}));
+	return true;
+    }
+
+    /**
+     * Called by the checkers to repair a file.  If we're repairing
+     * files in the background, hand the repair to a repair thread and
+     * return true.  Otherwise, return false.
+     */
+    boolean deferRepair(final AbstractCopyright checker, final File file,
+		final String comment, final AbstractCopyright.RepairType type) {
+	if (repairs == null || pending == null)
+	    return false;
+	repair.set(repairs.submit(new Callable<String>() {
+	    public String call() throws IOException {
+		return capture(new Check() {
+		    public void run() throws IOException {
+			checker.tryRepair(file, comment, type);
+		    }
+		}).output;
+	    }
+	}));
+	return true;
+    }
+
+    /**
+     * Queue any output from the walk itself so that it's printed
+     * in order with the output for the files being checked.
+     */
+    private void queueWalkOutput() {
+	if (walkOutput.size() == 0)
+	    return;
+	final String s = walkOutput.toString();
+	walkOutput.reset();
+	FutureTask<Checked> t = new FutureTask<Checked>(
+					new Callable<Checked>() {
+	    public Checked call() {
+		return new Checked(s, null, null);
+	    }
+	});
+	t.run();
+	pending.add(t);
+    }
+
+    /**
+     * Print the output of the pending file checks, in order,
+     * until no more than max checks are pending.
+     */
+    private void drain(int max) throws IOException {
+	queueWalkOutput();
+	while (pending.size() > max) {
+	    Future<Checked> f = pending.removeFirst();
+	    try {
+		// print the output of each part of the check in turn
+		while (f != null) {
+		    Checked ch = f.get();
+		    System.out.print(ch.output);
+		    if (ch.repair != null)
+			System.out.print(ch.repair.get());
+		    f = ch.rest;
+		}
+	    } catch (InterruptedException ex) {
+		throw new InterruptedIOException(ex.toString());
+	    } catch (ExecutionException ex) {
+		Throwable t = ex.getCause();
+		if (t instanceof IOException)
+		    throw (IOException)t;
+		if (t instanceof RuntimeException)
+		    throw (RuntimeException)t;
+		if (t instanceof Error)
+		    throw (Error)t;
+		throw new IOException(t);
+	    }
+	}
+	System.out.flush();
+    }
+
+    /**
+     * The stream to use for output about the file currently being
+     * checked by this thread.
+     */
+    PrintStream out() {
+	PrintStream ps = output.get();
+	return ps != null ? ps : System.out;
+    }
+
+    /**
+     * The content of the file, if it's the file currently being checked
+     * by this thread, otherwise null.
+     */
+    FileContent content(File file) {
+	FileContent fc = content.get();
+	return fc != null && fc.getFile() == file ? fc : null;
+    }
+
+    /**
+     * Called by the checkers when the file passed the check
+     * with no errors or warnings.
+     */
+    void passed(File file) throws IOException {
+	if (cache != null)
+	    cache.passed(file);
     }
 
     /**
      * Check the copyright in the named file.
      */
-    private void checkFile(File file) throws IOException {
+    private void checkFile(File file, BasicFileAttributes attrs)
+				throws IOException {
 	// ignore empty files
-	if (file.length() == 0) {
+	if (attrs.size() == 0) {
 	    if (verbose)
-		System.out.println("Empty file, skipped: " + file);
+		out().println("Empty file, skipped: " + file);
 	    return;
 	}
 
 	String pname = file.getPath();
-	for (String ex : excludes) {
-	    if (pname.indexOf(ex) >= 0) {
+	String ex = excludeMatcher.match(pname);
+	if (ex != null) {
+	    if (verbose)
+		out().println("Excluded by pattern \"" + ex +
+				    "\": " + pname);
+	    return;
+	}
+	if (cache != null) {
+	    if (cache.isUnchanged(file, attrs.size(),
+				    attrs.lastModifiedTime().toMillis())) {
 		if (verbose)
-		    System.out.println("Excluded by pattern \"" + ex +
-					"\": " + pname);
+		    out().println("Unchanged since last check, skipped: " +
+					file);
 		return;
 	    }
+	    // only remembered again if it passes
+	    cache.failed(file);
+	}
+
+	// share a single open of the file between all the checkers
+	FileContent fc = new FileContent(file);
+	content.set(fc);
+	try {
+	    checkContent(file);
+	} catch (FileNotFoundException fnfex) {
+	    // readability isn't checked while walking the tree
+	    if (file.canRead())
+		throw fnfex;
+	    out().println(file + ": can't read");
+	} finally {
+	    content.remove();
+	    fc.close();
 	}
+    }
+
+    /**
+     * Find the checker for the file and use it to check the file.
+     */
+    private void checkContent(File file) throws IOException {
 	if (javaCopyright.supports(file)) {
 	    if (debug)
-		System.out.println("File " + file + " is a Java file");
+		out().println("File " + file + " is a Java file");
 	    if (doJava)
 		javaCopyright.checkCopyright(file);
 	} else if (jspCopyright.supports(file)) {
 	    if (debug)
-		System.out.println("File " + file + " is a JSP file");
+		out().println("File " + file + " is a JSP file");
 	    if (doXml)
 		jspCopyright.checkCopyright(file);
 	} else if (xmlCopyright.supports(file)) {
 	    if (debug)
-		System.out.println("File " + file + " is an XML file");
+		out().println("File " + file + " is an XML file");
 	    if (doXml)
 		xmlCopyright.checkCopyright(file);
 	} else if (batCopyright.supports(file)) {
 	    if (debug)
-		System.out.println("File " + file + " is a BAT file");
+		out().println("File " + file + " is a BAT file");
 	    if (doText)
 		batCopyright.checkCopyright(file);
 	} else if (mdCopyright.supports(file)) {
 	    if (debug)
-		System.out.println("File " + file + " is a markdown file");
+		out().println("File " + file + " is a markdown file");
 	    if (doText)
 		mdCopyright.checkCopyright(file);
 	} else if (adCopyright.supports(file)) {
 	    if (debug)
-		System.out.println("File " + file + " is an asciidoc file");
+		out().println("File " + file + " is an asciidoc file");
 	    if (doText)
 		adCopyright.checkCopyright(file);
 	} else if (sigCopyright.supports(file)) {
 	    if (debug)
-		System.out.println("File " + file + " is a signature file");
+		out().println("File " + file + " is a signature file");
 	    if (doProps)
 		sigCopyright.checkCopyright(file);
 	} else if (propsCopyright.supports(file)) {
 	    if (debug)
-		System.out.println("File " + file + " is a properties file");
+		out().println("File " + file + " is a properties file");
 	    if (doProps)
 		propsCopyright.checkCopyright(file);
 	} else {
 	    if (debug)
-		System.out.println("File " + file + " is a text file");
+		out().println("File " + file + " is a text file");
 	    if (doText)
 		textCopyright.checkCopyright(file);
 	}
@@ -304,6 +786,14 @@ public class Copyright {
 	excludes.add(ex);
     }
 
+    public void addExcludeDir(String dir) {
+	if (dir == null || dir.length() == 0)
+	    return;
+	if (debug)
+	    System.out.println("Add directory exclude: " + dir);
+	excludeDirs.add(dir);
+    }
+
     public void addExcludes(String file) throws IOException {
 	BufferedReader r = null;
 	try {
@@ -331,6 +821,8 @@ public class Copyright {
 		c.debug = true;
 	    } else if (argv[optind].equals("-w")) {
 		c.warn = false;
+	    } else if (argv[optind].equals("-W")) {
+		c.warnLimit = Long.parseLong(argv[++optind]);
 	    } else if (argv[optind].equals("-y")) {
 		c.ignoreYear = true;
 	    } else if (argv[optind].equals("-N")) {
@@ -341,6 +833,8 @@ public class Copyright {
 		c.doRepair = true;
 	    } else if (argv[optind].equals("-n")) {
 		c.dontUpdate = true;
+	    } else if (argv[optind].equals("-E")) {
+		c.keepLineEndings = true;
 	    } else if (argv[optind].equals("-s")) {
 		c.skipNoSVN = true;
 	    } else if (argv[optind].equals("-h")) {
@@ -350,7 +844,7 @@ public class Copyright {
 	    } else if (argv[optind].equals("-g")) {
 		c.git = true;
 	    } else if (argv[optind].equals("-c")) {
-		count = true;
+		c.count = true;
 	    } else if (argv[optind].equals("-q")) {
 		c.quiet = true;
 	    } else if (argv[optind].equals("-j")) {
@@ -367,6 +861,8 @@ public class Copyright {
 		    c.addExcludes(ex.substring(1));
 		else
 		    c.addExclude(ex);
+	    } else if (argv[optind].equals("-D")) {
+		c.addExcludeDir(argv[++optind]);
 	    } else if (argv[optind].equals("-C")) {
 		c.correctTemplate = new File(argv[++optind]);
 	    } else if (argv[optind].equals("-A")) {
@@ -377,6 +873,20 @@ public class Copyright {
 		c.preserveCopyrights = true;
 	    } else if (argv[optind].equals("-v")) {
 		c.verbose = true;
+	    } else if (argv[optind].equals("-T")) {
+		c.threads = Integer.parseInt(argv[++optind]);
+	    } else if (argv[optind].equals("-L")) {
+		c.lookupThreads = Integer.parseInt(argv[++optind]);
+	    } else if (argv[optind].equals("-R")) {
+		c.repairThreads = Integer.parseInt(argv[++optind]);
+	    } else if (argv[optind].equals("-G")) {
+		c.readGit = true;
+	    } else if (argv[optind].equals("-I")) {
+		c.skipIgnored = true;
+	    } else if (argv[optind].equals("-K")) {
+		c.cacheFile = new File(argv[++optind]);
+	    } else if (argv[optind].equals("-Y")) {
+		c.yearCacheFile = new File(argv[++optind]);
 	    } else if (argv[optind].equals("-V")) {
 		System.out.println("Version: " + Version.getVersion());
 		System.exit(0);
@@ -386,14 +896,20 @@ public class Copyright {
 	    } else if (argv[optind].startsWith("-")) {
 		System.out.println("Usage: copyright " +
 		    "[-w] [-y] [-r] [-n] [-s] [-h] [-m] [-c] [-q] [-j] " +
-		    "[-x] [-p] [-t] [-N] [-O] [-V] [-X pat] [-C file] " +
-                    "[-A file] [-B file] [-P] [-v] [files...]");
+		    "[-x] [-p] [-t] [-N] [-O] [-V] [-X pat] [-D dir] " +
+                    "[-C file] [-A file] [-B file] [-P] [-v] [-T threads] " +
+		    "[-L lookups] [-K file] [-I] [-G] [-Y file] [-W bytes] " +
+		    "[-E] [-R repairs] [files...]");
 		System.out.println("\t-w\tsuppress warnings");
+		System.out.println("\t-W\tonly warn about extra copyrights " +
+				    "within bytes of the header");
 		System.out.println("\t-y\tdon't check that year is correct " +
 				    "(much faster)");
 		System.out.println("\t-r\trepair files that are wrong");
 		System.out.println("\t-n\twith -r, leave the updated file in " +
 				    "file.new");
+		System.out.println("\t-E\twith -r, keep the line terminators " +
+				    "used in the file");
 		System.out.println("\t-s\tskip files not under SVN (slower)");
 		System.out.println("\t-h\tcheck hidden files too");
 		System.out.println("\t-m\tuse Mercurial instead of SVN");
@@ -408,7 +924,9 @@ public class Copyright {
                                     "copyright to match template");
 		System.out.println("\t-O\tcomma instead of dash between years");
 		System.out.println("\t-X\texclude files matching pat " +
-				    "(substring only)");
+				    "(substring, glob:pat, or regex:pat)");
+		System.out.println("\t-D\texclude directories named dir " +
+				    "(or path suffix, glob:pat, regex:pat)");
 		System.out.println("\t-C\tfile containing correct copyright " +
 				    "template, using Java syntax");
 		System.out.println("\t-A\tfile containing alternate correct " +
@@ -418,6 +936,20 @@ public class Copyright {
 		System.out.println("\t-P\tpreserve original copyrights");
 		System.out.println("\t-v\tverbose output");
 		System.out.println("\t-V\tprint version number");
+		System.out.println("\t-T\tnumber of threads to use when " +
+				    "checking directories");
+		System.out.println("\t-L\tnumber of SCM lookups to run at " +
+				    "once when checking directories");
+		System.out.println("\t-R\twith -r, number of files to repair " +
+				    "at once");
+		System.out.println("\t-K\tcache file used to skip files " +
+				    "unchanged since they last passed");
+		System.out.println("\t-I\tskip files ignored by .gitignore " +
+				    "or .hgignore (faster than -s)");
+		System.out.println("\t-G\twith -g, read the git repository " +
+				    "directly instead of running git");
+		System.out.println("\t-Y\twith -g, cache file used to " +
+				    "remember the years files last changed");
 		System.exit(-1);
 	    } else {
 		break;
@@ -430,16 +962,25 @@ public class Copyright {
 	    while (optind < argv.length)
 		c.check(new File(argv[optind++]));
 
-	if (count)
+	if (c.count)
 	    summary(c);
-	System.exit(c.errors);
+	System.exit((int)c.result.getErrors());
     }
 
     /**
      * Print a summary of errors.
      */
     private static void summary(Copyright c) {
-	if (c.errors == 0) {
+	CheckResult r = c.result;
+	if (c.verbose) {
+	    System.out.println("Header cache:\t\t" +
+				r.get(Count.VERDICT_HITS) + " hits, " +
+				r.get(Count.VERDICT_MISSES) + " misses");
+	    System.out.println("Year lookups:\t\t" +
+				r.get(Count.LOOKUPS) + " done, " +
+				r.get(Count.LOOKUPS_AVOIDED) + " avoided");
+	}
+	if (r.getErrors() == 0) {
 	    System.out.println("No errors");
 	    return;
 	}
@@ -447,25 +988,26 @@ public class Copyright {
 	if (!c.quiet)
 	    System.out.println();
 
-	if (c.nMissing > 0)
-	    System.out.println("No Copyright:\t\t" + c.nMissing);
-	if (c.nEmpty > 0)
-	    System.out.println("Empty Copyright:\t" + c.nEmpty);
-	if (c.nSun > 0)
-	    System.out.println("Sun Copyright:\t" + c.nSun);
-	if (c.nSunApache > 0)
-	    System.out.println("Sun+Apache Copyright:\t" + c.nSunApache);
-	if (c.nSunBSD > 0)
-	    System.out.println("Sun BSD Copyright:\t" + c.nSunBSD);
-	if (c.nOldCDDL > 0)
-	    System.out.println("Old CDDL Copyright:\t" + c.nOldCDDL);
-	if (c.nNoCE > 0)
-	    System.out.println("Copyright without CE:\t" + c.nNoCE);
-	if (c.nWrong > 0)
-	    System.out.println("Wrong Copyright:\t" + c.nWrong);
-	if (c.nNoYear > 0)
-	    System.out.println("No Copyright Year:\t" + c.nNoYear);
-	if (!c.ignoreYear && c.nDate > 0)
-	    System.out.println("Wrong Copyright Date:\t" + c.nDate);
+	summary("No Copyright:\t\t", r.get(Count.MISSING));
+	summary("Empty Copyright:\t", r.get(Count.EMPTY));
+	summary("Sun Copyright:\t", r.get(Count.SUN));
+	summary("Sun+Apache Copyright:\t", r.get(Count.SUN_APACHE));
+	summary("Sun BSD Copyright:\t", r.get(Count.SUN_BSD));
+	summary("Old CDDL Copyright:\t", r.get(Count.OLD_CDDL));
+	summary("Copyright without CE:\t", r.get(Count.NO_CE));
+	summary("Wrong Copyright:\t", r.get(Count.WRONG));
+	summary("No Copyright Year:\t", r.get(Count.NO_YEAR));
+	if (!c.ignoreYear)
+	    summary("Wrong Copyright Date:\t", r.get(Count.DATE));
+	summary("Repaired:\t\t", r.get(Count.REPAIRED));
+	summary("Repair Failed:\t\t", r.get(Count.REPAIR_FAILED));
+    }
+
+    /**
+     * Print a line of the summary, if there's anything to count.
+     */
+    private static void summary(String label, long n) {
+	if (n > 0)
+	    System.out.println(label + n);
     }
 }
@@ -0,0 +1,110 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+/**
+ * Match directories against a list of directory exclude patterns.
+ * Files in a matching directory, or any of its subdirectories, aren't
+ * checked and the directory isn't even listed.
+ *
+ * A pattern is usually a directory name, such as "node_modules", which
+ * matches any directory with that name.  A pattern containing a "/"
+ * matches any directory whose path name ends with the pattern, such as
+ * "src/generated".  A pattern that starts with "glob:" or "regex:" is
+ * matched against the entire path name of the directory using the syntax
+ * described in {@link java.nio.file.FileSystem#getPathMatcher}.
+ */
+
+package org.glassfish.copyright;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+public class DirectoryExcludes {
+    private final Set<String> names = new HashSet<String>();
+    private final List<String> suffixes = new ArrayList<String>();
+    // pattern -> matcher, for glob and regex patterns
+    private final Map<String, PathMatcher> pathMatchers =
+				new LinkedHashMap<String, PathMatcher>();
+
+    public DirectoryExcludes(List<String> patterns) {
+	for (String p : patterns) {
+	    if (p.startsWith("glob:") || p.startsWith("regex:"))
+		pathMatchers.put(p,
+			    FileSystems.getDefault().getPathMatcher(p));
+	    else {
+		// ignore any trailing separators
+		while (p.length() > 1 && p.endsWith("/"))
+		    p = p.substring(0, p.length() - 1);
+		if (p.indexOf('/') >= 0)
+		    suffixes.add(p);
+		else
+		    names.add(p);
+	    }
+	}
+    }
+
+    /**
+     * Return the pattern that matches the directory,
+     * or null if none match.
+     */
+    public String match(File dir) {
+	String name = dir.getName();
+	if (names.contains(name))
+	    return name;
+	if (!suffixes.isEmpty()) {
+	    String path = dir.getPath().replace(File.separatorChar, '/');
+	    for (String s : suffixes) {
+		if (path.endsWith(s) && (path.length() == s.length() ||
+			s.startsWith("/") ||
+			path.charAt(path.length() - s.length() - 1) == '/'))
+		    return s;
+	    }
+	}
+	if (!pathMatchers.isEmpty()) {
+	    Path path = dir.toPath();
+	    for (Map.Entry<String, PathMatcher> e : pathMatchers.entrySet()) {
+		if (e.getValue().matches(path))
+		    return e.getKey();
+	    }
+	}
+	return null;
+    }
+}
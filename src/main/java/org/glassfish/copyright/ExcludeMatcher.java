@@ -0,0 +1,191 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+/**
+ * Match file names against a list of exclude patterns.
+ *
+ * Most patterns are substrings that are matched anywhere in the path
+ * name.  All the substrings are compiled into a single Aho-Corasick
+ * automaton so that a path is checked against all of them in one pass
+ * over the path, no matter how many there are.
+ *
+ * A pattern that starts with "glob:" or "regex:" is instead matched
+ * against the entire path name using the syntax described in
+ * {@link java.nio.file.FileSystem#getPathMatcher}.
+ *
+ * When more than one pattern matches, the first one in the list
+ * is reported.
+ */
+
+package org.glassfish.copyright;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+public class ExcludeMatcher {
+    private final List<String> patterns;
+    private final Node root = new Node();
+    // pattern index -> matcher, for glob and regex patterns
+    private final Map<Integer, PathMatcher> pathMatchers =
+				new LinkedHashMap<Integer, PathMatcher>();
+
+    /**
+     * A state of the automaton.
+     */
+    private static class Node {
+	final Map<Character, Node> next = new HashMap<Character, Node>();
+	Node fail;
+	// lowest index of a pattern that ends here, possibly
+	// by way of the fail links
+	int match = Integer.MAX_VALUE;
+    }
+
+    public ExcludeMatcher(List<String> patterns) {
+	this.patterns = new ArrayList<String>(patterns);
+	for (int i = 0; i < this.patterns.size(); i++) {
+	    String p = this.patterns.get(i);
+	    if (p.startsWith("glob:") || p.startsWith("regex:"))
+		pathMatchers.put(i,
+			    FileSystems.getDefault().getPathMatcher(p));
+	    else
+		add(p, i);
+	}
+	link();
+    }
+
+    /**
+     * Return the first pattern that matches the path,
+     * or null if none match.
+     */
+    public String match(String path) {
+	int best = matchSubstrings(path);
+	if (!pathMatchers.isEmpty()) {
+	    Path p = null;
+	    for (Map.Entry<Integer, PathMatcher> e : pathMatchers.entrySet()) {
+		if (e.getKey() >= best)
+		    break;
+		if (p == null)
+		    p = Paths.get(path);
+		if (e.getValue().matches(p)) {
+		    best = e.getKey();
+		    break;
+		}
+	    }
+	}
+	return best < patterns.size() ? patterns.get(best) : null;
+    }
+
+    /**
+     * Return the first pattern that matches every file in the
+     * directory and its subdirectories, or null if there's no such
+     * pattern.  Only substring patterns are considered; a substring
+     * that appears in the directory name followed by a separator
+     * appears in the path name of every file under it.
+     */
+    public String matchDirectory(String dir) {
+	int best = matchSubstrings(dir + File.separator);
+	return best < patterns.size() ? patterns.get(best) : null;
+    }
+
+    /**
+     * Add a substring pattern with the given index to the trie.
+     */
+    private void add(String pattern, int index) {
+	Node n = root;
+	for (int i = 0; i < pattern.length(); i++) {
+	    Character ch = pattern.charAt(i);
+	    Node nn = n.next.get(ch);
+	    if (nn == null) {
+		nn = new Node();
+		n.next.put(ch, nn);
+	    }
+	    n = nn;
+	}
+	if (index < n.match)
+	    n.match = index;
+    }
+
+    /**
+     * Compute the fail links, breadth first.
+     */
+    private void link() {
+	LinkedList<Node> queue = new LinkedList<Node>();
+	root.fail = root;
+	for (Node n : root.next.values()) {
+	    n.fail = root;
+	    queue.add(n);
+	}
+	while (!queue.isEmpty()) {
+	    Node n = queue.removeFirst();
+	    for (Map.Entry<Character, Node> e : n.next.entrySet()) {
+		Node child = e.getValue();
+		Node f = n.fail;
+		while (f != root && !f.next.containsKey(e.getKey()))
+		    f = f.fail;
+		Node fn = f.next.get(e.getKey());
+		child.fail = fn != null && fn != child ? fn : root;
+		if (child.fail.match < child.match)
+		    child.match = child.fail.match;
+		queue.add(child);
+	    }
+	}
+    }
+
+    /**
+     * Return the lowest index of a substring pattern that appears in s,
+     * or Integer.MAX_VALUE if none.
+     */
+    private int matchSubstrings(String s) {
+	int best = Integer.MAX_VALUE;
+	Node n = root;
+	for (int i = 0; i < s.length(); i++) {
+	    Character ch = s.charAt(i);
+	    Node nn;
+	    while ((nn = n.next.get(ch)) == null && n != root)
+		n = n.fail;
+	    if (nn != null)
+		n = nn;
+	    if (n.match < best)
+		best = n.match;
+	}
+	return best;
+    }
+}
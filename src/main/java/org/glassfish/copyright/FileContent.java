@@ -0,0 +1,388 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+/**
+ * The content of the file currently being checked.  The file is opened
+ * at most once, when first needed.  The beginning of the file is read
+ * into a buffer that's used to determine the type of the file, and then
+ * the entire file can be read, starting from the beginning, to extract
+ * the copyright comment and scan the rest of the file.
+ *
+ * The file is read into a direct buffer that each thread reuses for
+ * every file it checks.  Since the files are read as ISO-8859-1, each
+ * byte is a character, so the reader returned by {@link #reader reader}
+ * decodes the lines straight from that buffer without the char buffers
+ * and decoder of an InputStreamReader.
+ */
+
+package org.glassfish.copyright;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+public class FileContent {
+    private static final int HEAD_SIZE = 8192;
+
+    // the buffers used by each thread, reused for every file
+    private static final ThreadLocal<Buffers> buffers =
+	new ThreadLocal<Buffers>() {
+	    @Override
+	    protected Buffers initialValue() {
+		return new Buffers();
+	    }
+	};
+
+    private static class Buffers {
+	final ByteBuffer bytes = ByteBuffer.allocateDirect(HEAD_SIZE);
+	ByteBuffer scan;	// for scanning without disturbing "bytes"
+	char[] line = new char[256];
+    }
+
+    // BufferedReader needs a Reader, but HeadReader never uses it
+    private static final Reader NO_READER = new StringReader("");
+
+    private final File file;
+    private FileChannel channel;
+    // the data read from the file and not yet consumed
+    private ByteBuffer buf;
+    private boolean eof;
+    // the number of bytes read from the file into the buffer
+    private long nread;
+    // the reader returned a line ending in "\r", skip a following "\n"
+    private boolean skipLF;
+
+    public FileContent(File file) {
+	this.file = file;
+    }
+
+    public File getFile() {
+	return file;
+    }
+
+    /**
+     * Open the file and read the beginning of it, if not done already.
+     */
+    private void readHead() throws IOException {
+	if (buf != null)
+	    return;
+	channel = new FileInputStream(file).getChannel();
+	buf = buffers.get().bytes;
+	buf.clear();
+	while (buf.hasRemaining()) {
+	    if (channel.read(buf) < 0) {
+		eof = true;
+		break;
+	    }
+	}
+	buf.flip();
+	nread = buf.limit();
+    }
+
+    /**
+     * Does the file start with the specified prefix?
+     * Carriage returns in the file are ignored.
+     * Must be called before the file is read using the reader.
+     */
+    public boolean startsWith(String prefix) {
+	try {
+	    readHead();
+	} catch (IOException ex) {
+	    return false;
+	}
+	int len = prefix.length();
+	int headLen = buf.limit();
+	int j = 0;
+	for (int i = 0; i < len; i++) {
+	    while (j < headLen && buf.get(j) == '\r')
+		j++;	// skip CR
+	    if (j >= headLen || (char)(buf.get(j) & 0xff) != prefix.charAt(i))
+		return false;
+	    j++;
+	}
+	return true;
+    }
+
+    /**
+     * Return the line terminator used most often in the beginning
+     * of the file, "\n" if there are none.
+     * Must be called before the file is read using the reader.
+     */
+    public String lineTerminator() throws IOException {
+	readHead();
+	int crlf = 0, cr = 0, lf = 0;
+	int headLen = buf.limit();
+	for (int i = 0; i < headLen; i++) {
+	    byte b = buf.get(i);
+	    if (b == '\r') {
+		if (i + 1 < headLen && buf.get(i + 1) == '\n') {
+		    crlf++;
+		    i++;
+		} else
+		    cr++;
+	    } else if (b == '\n')
+		lf++;
+	}
+	if (crlf > lf && crlf >= cr)
+	    return "\r\n";
+	if (cr > lf)
+	    return "\r";
+	return "\n";
+    }
+
+    /**
+     * Return a reader for the entire file, starting from the beginning.
+     * Can only be called once.
+     */
+    public BufferedReader reader() throws IOException {
+	readHead();
+	return new HeadReader();
+    }
+
+    /**
+     * Close the file, if it was opened.
+     */
+    public void close() {
+	if (channel != null) {
+	    try {
+		channel.close();
+	    } catch (IOException ex) { }
+	    channel = null;
+	}
+    }
+
+    /**
+     * Make sure there's data in the buffer, reading more of the file
+     * into it if needed.  Return false at the end of the file.
+     */
+    private boolean fill() throws IOException {
+	if (buf.hasRemaining())
+	    return true;
+	if (eof || channel == null)
+	    return false;
+	buf.clear();
+	int n = channel.read(buf);
+	buf.flip();
+	if (n < 0)
+	    eof = true;
+	else
+	    nread += n;
+	return buf.hasRemaining();
+    }
+
+    /**
+     * Return the offset in the file of the next character the reader
+     * will return, after the "\n" of any "\r\n" it's in the middle of.
+     */
+    public long position() throws IOException {
+	if (skipLF && fill()) {
+	    skipLF = false;
+	    if (buf.get(buf.position()) == '\n')
+		buf.get();
+	}
+	return nread - buf.remaining();
+    }
+
+    /**
+     * Does the file contain a carriage return at or after "offset"?
+     * Doesn't change what the reader will return next.
+     */
+    public boolean hasCR(long offset) throws IOException {
+	ByteBuffer sb = scanBuffer();
+	for (;;) {
+	    sb.clear();
+	    int n = channel.read(sb, offset);
+	    if (n < 0)
+		return false;
+	    for (int i = 0; i < n; i++)
+		if (sb.get(i) == '\r')
+		    return true;
+	    offset += n;
+	}
+    }
+
+    /**
+     * Does the file end with a newline?  An empty file does.
+     */
+    public boolean endsWithNewline() throws IOException {
+	long size = channel.size();
+	if (size == 0)
+	    return true;
+	ByteBuffer sb = scanBuffer();
+	sb.clear();
+	sb.limit(1);
+	return channel.read(sb, size - 1) == 1 && sb.get(0) == '\n';
+    }
+
+    /**
+     * Write the bytes of the file from "offset" to the end to "out",
+     * without reading them through the buffer.  The reader is then
+     * at the end of the file.
+     */
+    public void transferTo(long offset, WritableByteChannel out)
+				throws IOException {
+	long size = channel.size();
+	while (offset < size) {
+	    long n = channel.transferTo(offset, size - offset, out);
+	    if (n <= 0)
+		break;
+	    offset += n;
+	}
+	buf.position(buf.limit());
+	skipLF = false;
+	eof = true;
+    }
+
+    /**
+     * Return this thread's buffer for reading parts of the file
+     * without disturbing the data buffered for the reader.
+     */
+    private static ByteBuffer scanBuffer() {
+	Buffers b = buffers.get();
+	if (b.scan == null)
+	    b.scan = ByteBuffer.allocateDirect(HEAD_SIZE);
+	return b.scan;
+    }
+
+    /**
+     * A BufferedReader that reads the file from the buffer, treating
+     * each byte as an ISO-8859-1 character.  Lines end with "\n",
+     * "\r", or "\r\n", as with BufferedReader.
+     */
+    private class HeadReader extends BufferedReader {
+	private final Buffers b = buffers.get();
+
+	HeadReader() {
+	    super(NO_READER, 1);
+	}
+
+	@Override
+	public int read() throws IOException {
+	    for (;;) {
+		if (!fill())
+		    return -1;
+		int c = buf.get() & 0xff;
+		if (skipLF) {
+		    skipLF = false;
+		    if (c == '\n')
+			continue;
+		}
+		return c;
+	    }
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+	    if (len == 0)
+		return 0;
+	    if (skipLF) {
+		if (!fill())
+		    return -1;
+		skipLF = false;
+		if (buf.get(buf.position()) == '\n')
+		    buf.get();
+	    }
+	    if (!fill())
+		return -1;
+	    int n = Math.min(len, buf.remaining());
+	    for (int i = 0; i < n; i++)
+		cbuf[off + i] = (char)(buf.get() & 0xff);
+	    return n;
+	}
+
+	@Override
+	public String readLine() throws IOException {
+	    char[] line = b.line;
+	    int n = 0;
+	    for (;;) {
+		if (!fill())
+		    return n > 0 ? new String(line, 0, n) : null;
+		int c = buf.get() & 0xff;
+		if (skipLF) {
+		    skipLF = false;
+		    if (c == '\n')
+			continue;
+		}
+		if (c == '\n' || c == '\r') {
+		    skipLF = c == '\r';
+		    return new String(line, 0, n);
+		}
+		if (n == line.length)
+		    line = b.line = Arrays.copyOf(line, n * 2);
+		line[n++] = (char)c;
+	    }
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+	    long skipped = 0;
+	    while (skipped < n && read() >= 0)
+		skipped++;
+	    return skipped;
+	}
+
+	@Override
+	public boolean ready() {
+	    return buf.hasRemaining();
+	}
+
+	@Override
+	public boolean markSupported() {
+	    return false;
+	}
+
+	@Override
+	public void mark(int readAheadLimit) throws IOException {
+	    throw new IOException("mark() not supported");
+	}
+
+	@Override
+	public void reset() throws IOException {
+	    throw new IOException("reset() not supported");
+	}
+
+	@Override
+	public void close() {
+	    FileContent.this.close();
+	}
+    }
+}
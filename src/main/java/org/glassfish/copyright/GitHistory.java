@@ -0,0 +1,379 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+/**
+ * Find the year in which each file in a git repository was last changed.
+ * Rather than running "git log" for each file, a single "git log" is run
+ * over the entire repository the first time a file in that repository is
+ * looked up, and the year of the most recent commit that touched each
+ * path is remembered.
+ *
+ * As with "git log -n 1 file", the author date is used.  Merge commits
+ * don't list any files so changes made only while merging are not seen.
+ *
+ * Unlike "git log -n 1 file", the history isn't simplified for each
+ * file, so every commit reachable from HEAD counts.  In particular, a
+ * change made on a branch that was then merged without taking any of
+ * its changes, e.g., with "git merge -s ours", still counts as a change
+ * to the file, even though the file doesn't include it.
+ *
+ * Optionally, the history is read directly from the repository using
+ * {@link GitLog}, without running git at all.  If the repository can't
+ * be read that way, git is run instead.
+ *
+ * Optionally, the years are remembered in a {@link YearCache} along
+ * with the HEAD commit they're for.  If HEAD hasn't changed since the
+ * years were cached, no history is read at all; if it has, only the
+ * commits since the cached HEAD commit are read.
+ */
+
+package org.glassfish.copyright;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class GitHistory {
+    private final ScmRoots roots =
+			new ScmRoots("git", "rev-parse", "--show-toplevel");
+    // if reading the repositories directly
+    private final ScmRoots gitRoots;
+    // repository top level directory -> its years
+    private final Map<String, Repo> repos = new HashMap<String, Repo>();
+    // the years remembered from earlier runs, if any
+    private final YearCache cache;
+
+    /**
+     * The years for one repository.  The first lookup in the repository
+     * reads its history, or brings its cached years up to date, while
+     * holding the lock on the Repo, so lookups in other repositories
+     * aren't held up.  After that, the years are read without locking.
+     */
+    private class Repo {
+	final String top;
+	// when running git, the years for the entire repository
+	private volatile Map<String, String> years;
+	// when reading the repository directly, whether it's been opened,
+	// its history, or null if unreadable, and its cached years
+	private volatile boolean opened;
+	private volatile GitLog log;
+	private YearCache.Entry entry;
+
+	Repo(String top) {
+	    this.top = top;
+	}
+
+	/**
+	 * Return a map from repository path to the year the path was
+	 * last changed, reading the history the first time.
+	 */
+	Map<String, String> years() throws IOException {
+	    Map<String, String> y = years;
+	    if (y == null) {
+		synchronized (this) {
+		    y = years;
+		    if (y == null)
+			years = y = history(new File(top));
+		}
+	    }
+	    return y;
+	}
+
+	/**
+	 * Return the year the path was last changed, reading the
+	 * repository directly, or null if it can't be read that way.
+	 */
+	String lastChanged(String rel) {
+	    if (!opened)
+		open();
+	    GitLog l = log;
+	    if (l == null)
+		return null;
+	    try {
+		YearCache.Entry e = entry;
+		if (e == null)
+		    return l.lastChanged(rel);
+		String year = e.years.get(rel);
+		if (year == null) {
+		    if (e.complete)
+			return "";
+		    year = l.lastChanged(rel);
+		    e.years.put(rel, year);
+		    cache.changed();
+		}
+		return year;
+	    } catch (IOException ex) {
+		log = null;	// give up, use git instead
+		return null;
+	    }
+	}
+
+	/**
+	 * Open the repository and bring its cached years up to date,
+	 * if not done already.
+	 */
+	private synchronized void open() {
+	    if (opened)
+		return;
+	    try {
+		log = new GitLog(GitIndex.gitDir(new File(top).toPath()));
+		entry = cachedYears(top, log);
+	    } catch (IOException ex) {
+		log = null;
+	    }
+	    opened = true;
+	}
+    }
+
+    /**
+     * If readObjects is true, read the history directly from the
+     * repository instead of running "git log".  If cacheFile isn't
+     * null, remember the years in it.
+     */
+    public GitHistory(boolean readObjects, File cacheFile)
+				throws IOException {
+	gitRoots = readObjects ? ScmRoots.forMarker(".git") : null;
+	if (cacheFile != null) {
+	    cache = new YearCache(cacheFile);
+	    cache.load();
+	} else
+	    cache = null;
+    }
+
+    /**
+     * Write the cached years, if any.
+     */
+    public void save() throws IOException {
+	if (cache != null)
+	    cache.save();
+    }
+
+    /**
+     * Return the year the file was last changed, or the empty string
+     * if the file isn't under git control.
+     */
+    public String lastChanged(File file) throws IOException {
+	String path = file.getCanonicalPath();
+	if (gitRoots != null) {
+	    String top = gitRoots.find(path);
+	    if (top == null)
+		return "";
+	    String year = repo(top).lastChanged(
+					ScmRoots.relativePath(top, path));
+	    if (year != null)
+		return year;
+	}
+	String top = roots.find(path);
+	if (top == null)
+	    return "";
+	String year = repo(top).years().get(ScmRoots.relativePath(top, path));
+	return year != null ? year : "";
+    }
+
+    /**
+     * Return the years for the repository.
+     */
+    private Repo repo(String top) {
+	synchronized (repos) {
+	    Repo r = repos.get(top);
+	    if (r == null) {
+		r = new Repo(top);
+		repos.put(top, r);
+	    }
+	    return r;
+	}
+    }
+
+    /**
+     * Return the cached years for the repository brought up to date
+     * with its current HEAD commit, or null if not caching.
+     */
+    private YearCache.Entry cachedYears(String top, GitLog log)
+				throws IOException {
+	if (cache == null || log.head() == null)
+	    return null;
+	YearCache.Entry e = cache.get(top);
+	if (e == null || !e.head.equals(log.head())) {
+	    Map<String, String> changed =
+				e != null ? log.changedSince(e.head) : null;
+	    if (changed != null) {
+		update(e.years, changed);
+		e = cache.put(top, log.head(), e.complete, e.years);
+	    } else
+		e = cache.put(top, log.head(), false,
+				new ConcurrentHashMap<String, String>());
+	}
+	return e;
+    }
+
+    /**
+     * Return a map from repository path to the year the path was last
+     * changed, using the cached years if they're complete.
+     */
+    private Map<String, String> history(File top) throws IOException {
+	if (cache == null)
+	    return loadHistory(top);
+	String head = head(top);
+	if (head == null)
+	    return loadHistory(top);
+	String key = top.getPath();
+	YearCache.Entry e = cache.get(key);
+	if (e != null && e.complete) {
+	    if (e.head.equals(head))
+		return e.years;
+	    if (isAncestor(top, e.head)) {
+		update(e.years, loadHistory(top, e.head + "..HEAD"));
+		return cache.put(key, head, true, e.years).years;
+	    }
+	}
+	return cache.put(key, head, true, loadHistory(top)).years;
+    }
+
+    /**
+     * Update the cached years with the years the paths were changed by
+     * the commits since the cached HEAD commit.  Those commits aren't
+     * necessarily newer than the commit a cached year came from; a
+     * merged branch can bring in an older change to a path.  So a
+     * cached year is only replaced by a later year.
+     */
+    private static void update(Map<String, String> years,
+				Map<String, String> changed) {
+	for (Map.Entry<String, String> e : changed.entrySet()) {
+	    String year = years.get(e.getKey());
+	    if (year == null || e.getValue().compareTo(year) > 0)
+		years.put(e.getKey(), e.getValue());
+	}
+    }
+
+    /**
+     * Return the name of the HEAD commit, or null if there's none.
+     */
+    private static String head(File top) throws IOException {
+	ProcessBuilder pb = new ProcessBuilder("git", "rev-parse", "HEAD");
+	pb.directory(top);
+	pb.redirectErrorStream(true);
+	Process p = pb.start();
+	p.getOutputStream().close();
+	BufferedReader r = new BufferedReader(new InputStreamReader(
+						p.getInputStream(), "utf-8"));
+	String head = r.readLine();
+	while (r.readLine() != null)
+	    ;
+	r.close();
+	if (ScmRoots.waitFor(p) != 0 || head == null)
+	    return null;
+	return head.trim();
+    }
+
+    /**
+     * Is the commit an ancestor of the HEAD commit?
+     */
+    private static boolean isAncestor(File top, String commit)
+				throws IOException {
+	ProcessBuilder pb = new ProcessBuilder("git", "merge-base",
+				"--is-ancestor", commit, "HEAD");
+	pb.directory(top);
+	pb.redirectErrorStream(true);
+	Process p = pb.start();
+	p.getOutputStream().close();
+	InputStream in = p.getInputStream();
+	while (in.read() != -1)
+	    ;
+	in.close();
+	return ScmRoots.waitFor(p) == 0;
+    }
+
+    /**
+     * Run "git log" over the entire repository, or only the commits
+     * in the range, and return a map from repository path to the year
+     * the path was last changed.
+     *
+     * With -z, each commit is output as the formatted header (here \001
+     * followed by the date), a NUL, a newline, and then each file name
+     * terminated by a NUL.
+     *
+     * Any error messages from git go to our stderr rather than being
+     * read as file names.  If git fails, the history read so far is
+     * incomplete, so it's not returned, and in particular not cached.
+     */
+    private static Map<String, String> loadHistory(File top, String... range)
+				throws IOException {
+	Map<String, String> years = new HashMap<String, String>();
+	List<String> cmd = new ArrayList<String>(Arrays.asList("git", "log",
+		"-z", "--name-only", "--format=%x01%ad", "--date=local"));
+	cmd.addAll(Arrays.asList(range));
+	ProcessBuilder pb = new ProcessBuilder(cmd);
+	pb.directory(top);
+	pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+	Process p = pb.start();
+	p.getOutputStream().close();
+	Reader r = new BufferedReader(new InputStreamReader(
+						p.getInputStream(), "utf-8"));
+	StringBuilder sb = new StringBuilder();
+	String year = null;
+	int c;
+	do {
+	    c = r.read();
+	    if (c != 0 && c != -1) {
+		sb.append((char)c);
+		continue;
+	    }
+	    if (sb.length() > 0 && sb.charAt(0) == '\001') {
+		// date returned in the form "Mon Sep 4 12:34:56 2006"
+		String date = sb.toString().trim();
+		year = date.substring(date.lastIndexOf(' ') + 1);
+	    } else if (sb.length() > 0 && year != null) {
+		if (sb.charAt(0) == '\n')
+		    sb.deleteCharAt(0);
+		String name = sb.toString();
+		// the first commit listed is the most recent
+		if (name.length() > 0 && !years.containsKey(name))
+		    years.put(name, year);
+	    }
+	    sb.setLength(0);
+	} while (c != -1);
+	r.close();
+	int status = ScmRoots.waitFor(p);
+	if (status != 0)
+	    throw new IOException("git log failed in " + top +
+					", exit status " + status);
+	return years;
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+/**
+ * Find out whether files are tracked by git by reading the index
+ * (.git/index) directly, rather than running git for each file.
+ * The index of each repository is read once, the first time a file
+ * in that repository is looked up.
+ *
+ * The index can also be used, along with the HEAD commit, to find out
+ * whether a file has been modified or added locally, the same as
+ * "git status" would report.  The file's size and last modified time
+ * are compared with those recorded in the index, and the file's content
+ * is only read if they differ.  Content filters, such as end of line
+ * conversion, aren't applied when comparing the content.
+ *
+ * Index versions 2, 3, and 4 are supported.  If the index can't be
+ * read, e.g., because it's a split index or a sparse index, the
+ * methods return null and the caller should fall back to asking git.
+ */
+
+package org.glassfish.copyright;
+
+import java.io.*;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+
+public class GitIndex {
+    // directory -> top of the repository it's in, or NONE
+    private final Map<Path, Path> tops = new HashMap<Path, Path>();
+    // top of repository -> tracked files, or NONE_TRACKED if unreadable
+    private final Map<Path, Tracked> repos = new HashMap<Path, Tracked>();
+    // top of repository -> tree of the HEAD commit, or null if none
+    private final Map<Path, String> heads = new HashMap<Path, String>();
+    // top of repository -> objects, for looking up files in HEAD
+    private final Map<Path, GitObjects> objects =
+				    new HashMap<Path, GitObjects>();
+
+    private static final Path NONE = Paths.get("");
+    private static final Tracked NONE_TRACKED = new Tracked();
+
+    /**
+     * The files in the index, and the directories containing them,
+     * relative to the top of the repository.
+     */
+    private static class Tracked {
+	final Map<String, Entry> files = new HashMap<String, Entry>();
+	final Set<String> dirs = new HashSet<String>();
+    }
+
+    /**
+     * What the index records about a file.
+     */
+    private static class Entry {
+	final String id;
+	final long size;
+	final long lastModified;
+
+	Entry(String id, long size, long lastModified) {
+	    this.id = id;
+	    this.size = size;
+	    this.lastModified = lastModified;
+	}
+    }
+
+    /**
+     * Is the file in the index?  Return null if we can't tell.
+     * Files not in a git repository aren't tracked.
+     */
+    public synchronized Boolean isTracked(File file) {
+	Path path = file.toPath().toAbsolutePath().normalize();
+	Path dir = path.getParent();
+	if (dir == null)
+	    return Boolean.FALSE;
+	Path top = top(dir);
+	if (top == NONE)
+	    return Boolean.FALSE;
+	Tracked t = tracked(top);
+	if (t == NONE_TRACKED)
+	    return null;
+	return Boolean.valueOf(t.files.containsKey(relativePath(top, path)));
+    }
+
+    /**
+     * Has the file been modified or added locally?  That is, does
+     * it differ from HEAD either in the index or in the working tree?
+     * Return null if we can't tell.
+     *
+     * Only finding the file's entry holds the lock.  Looking it up in
+     * HEAD and reading the file's content are done without it, so
+     * several threads can do that at once.
+     */
+    public Boolean isModified(File file) {
+	Path path = file.toPath().toAbsolutePath().normalize();
+	Path dir = path.getParent();
+	if (dir == null)
+	    return Boolean.FALSE;
+	String rel;
+	Entry e;
+	String head;
+	GitObjects o;
+	try {
+	    synchronized (this) {
+		Path top = top(dir);
+		if (top == NONE)
+		    return Boolean.FALSE;
+		Tracked t = tracked(top);
+		if (t == NONE_TRACKED)
+		    return null;
+		rel = relativePath(top, path);
+		e = t.files.get(rel);
+		if (e == null)
+		    return Boolean.FALSE;	// untracked
+		head = headTree(top);
+		o = objects.get(top);
+	    }
+	    String id = head != null ? o.lookup(head, rel) : null;
+	    if (!e.id.equals(id))
+		return Boolean.TRUE;	// added, or changed in the index
+	    if (file.length() == e.size &&
+		    file.lastModified() == e.lastModified)
+		return Boolean.FALSE;
+	    return Boolean.valueOf(!e.id.equals(blobId(file)));
+	} catch (IOException ex) {
+	    return null;
+	}
+    }
+
+    /**
+     * Return the tree of the HEAD commit, or null if there's no commit.
+     */
+    private String headTree(Path top) throws IOException {
+	if (heads.containsKey(top))
+	    return heads.get(top);
+	GitObjects o = new GitObjects(gitDir(top));
+	String head = o.head();
+	String tree = head != null ? o.commit(head, false).tree : null;
+	objects.put(top, o);
+	heads.put(top, tree);
+	return tree;
+    }
+
+    /**
+     * Return the name of the file's content as a git blob.
+     */
+    private static String blobId(File file) throws IOException {
+	MessageDigest md;
+	try {
+	    md = MessageDigest.getInstance("SHA-1");
+	} catch (NoSuchAlgorithmException ex) {
+	    throw new IOException(ex.toString());
+	}
+	md.update(("blob " + file.length() + "\0").getBytes("us-ascii"));
+	InputStream in = new FileInputStream(file);
+	try {
+	    byte[] buf = new byte[8192];
+	    int n;
+	    while ((n = in.read(buf)) > 0)
+		md.update(buf, 0, n);
+	} finally {
+	    in.close();
+	}
+	return GitObjects.hex(md.digest(), 0);
+    }
+
+    /**
+     * Does the directory contain any files in the index?
+     * Return null if we can't tell.
+     */
+    public synchronized Boolean hasTracked(File dir) {
+	Path path = dir.toPath().toAbsolutePath().normalize();
+	Path top = top(path);
+	if (top == NONE)
+	    return Boolean.FALSE;
+	Tracked t = tracked(top);
+	if (t == NONE_TRACKED)
+	    return null;
+	return Boolean.valueOf(t.dirs.contains(relativePath(top, path)));
+    }
+
+    private static String relativePath(Path top, Path path) {
+	return top.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Return the top directory of the repository containing dir,
+     * or NONE if it's not in a repository.
+     */
+    private Path top(Path dir) {
+	Path top = tops.get(dir);
+	if (top != null)
+	    return top;
+	if (Files.exists(dir.resolve(".git")))
+	    top = dir;
+	else if (dir.getParent() == null)
+	    top = NONE;
+	else
+	    top = top(dir.getParent());
+	tops.put(dir, top);
+	return top;
+    }
+
+    /**
+     * Return the files tracked in the repository.
+     */
+    private Tracked tracked(Path top) {
+	Tracked t = repos.get(top);
+	if (t == null) {
+	    try {
+		t = readIndex(gitDir(top).resolve("index"));
+	    } catch (IOException ex) {
+		t = null;
+	    }
+	    if (t == null)
+		t = NONE_TRACKED;
+	    repos.put(top, t);
+	}
+	return t;
+    }
+
+    /**
+     * Return the git directory for the working tree.  Usually it's the
+     * .git directory, but for a linked working tree or a submodule .git
+     * is a file containing "gitdir: path".
+     */
+    static Path gitDir(Path top) throws IOException {
+	Path git = top.resolve(".git");
+	if (Files.isDirectory(git))
+	    return git;
+	BufferedReader r = new BufferedReader(new InputStreamReader(
+				new FileInputStream(git.toFile()), "utf-8"));
+	try {
+	    String line = r.readLine();
+	    if (line == null || !line.startsWith("gitdir:"))
+		throw new IOException("Not a git directory: " + git);
+	    return top.resolve(line.substring(7).trim()).normalize();
+	} finally {
+	    r.close();
+	}
+    }
+
+    /**
+     * Read the index file.  Return null if the format isn't supported.
+     */
+    private static Tracked readIndex(Path index) throws IOException {
+	if (!Files.isRegularFile(index))
+	    return new Tracked();	// nothing added yet
+	byte[] b = Files.readAllBytes(index);
+	if (b.length < 12 + 20 || b[0] != 'D' || b[1] != 'I' ||
+		b[2] != 'R' || b[3] != 'C')
+	    return null;
+	int version = int32(b, 4);
+	if (version < 2 || version > 4)
+	    return null;
+	int count = int32(b, 8);
+	int end = b.length - 20;	// trailing checksum
+	Tracked t = new Tracked();
+	t.dirs.add("");
+	byte[] prev = new byte[0];
+	int prevLen = 0;
+	int pos = 12;
+	for (int i = 0; i < count; i++) {
+	    int start = pos;
+	    if (pos + 62 > end)
+		return null;
+	    long mtime = (int32(b, pos + 8) & 0xffffffffL) * 1000 +
+				(int32(b, pos + 12) & 0xffffffffL) / 1000000;
+	    int mode = int32(b, pos + 24);
+	    long size = int32(b, pos + 36) & 0xffffffffL;
+	    String id = GitObjects.hex(b, pos + 40);
+	    int flags = ((b[pos + 60] & 0xff) << 8) | (b[pos + 61] & 0xff);
+	    pos += 62;
+	    if (version >= 3 && (flags & 0x4000) != 0)
+		pos += 2;		// extended flags
+	    if ((mode & 0170000) == 0040000)
+		return null;		// sparse directory entry
+	    byte[] path;
+	    int len;
+	    if (version == 4) {
+		// prefix compressed, relative to the previous path
+		int strip = b[pos] & 0x7f;
+		while ((b[pos++] & 0x80) != 0)
+		    strip = ((strip + 1) << 7) | (b[pos] & 0x7f);
+		int nul = indexOf(b, pos, end);
+		if (nul < 0 || strip > prevLen)
+		    return null;
+		int keep = prevLen - strip;
+		len = keep + (nul - pos);
+		path = new byte[len];
+		System.arraycopy(prev, 0, path, 0, keep);
+		System.arraycopy(b, pos, path, keep, nul - pos);
+		pos = nul + 1;
+	    } else {
+		int nul = indexOf(b, pos, end);
+		if (nul < 0)
+		    return null;
+		len = nul - pos;
+		path = new byte[len];
+		System.arraycopy(b, pos, path, 0, len);
+		// entries are padded with NULs to a multiple of 8 bytes
+		pos = start + ((nul + 1 - start + 7) & ~7);
+	    }
+	    String name = new String(path, 0, len, "utf-8");
+	    t.files.put(name, new Entry(id, size, mtime));
+	    for (int s = name.lastIndexOf('/'); s > 0;
+		    s = name.lastIndexOf('/', s - 1)) {
+		if (!t.dirs.add(name.substring(0, s)))
+		    break;	// already added it and its parents
+	    }
+	    prev = path;
+	    prevLen = len;
+	}
+
+	// a split index keeps most entries in another file
+	while (pos + 8 <= end) {
+	    if (b[pos] == 'l' && b[pos + 1] == 'i' &&
+		    b[pos + 2] == 'n' && b[pos + 3] == 'k')
+		return null;
+	    pos += 8 + int32(b, pos + 4);
+	}
+	return t;
+    }
+
+    private static int int32(byte[] b, int off) {
+	return ((b[off] & 0xff) << 24) | ((b[off + 1] & 0xff) << 16) |
+		((b[off + 2] & 0xff) << 8) | (b[off + 3] & 0xff);
+    }
+
+    private static int indexOf(byte[] b, int from, int end) {
+	for (int i = from; i < end; i++)
+	    if (b[i] == 0)
+		return i;
+	return -1;
+    }
+}
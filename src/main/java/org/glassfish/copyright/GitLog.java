@@ -0,0 +1,352 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+/**
+ * Find the year in which each path in a git repository was last changed,
+ * by walking the history from HEAD using {@link GitObjects}, without
+ * running git.
+ *
+ * Commits are visited in the same order as "git log": newest commit
+ * time first, with parents queued as each commit is visited.  As with
+ * "git log --name-only", the paths changed by a commit are those that
+ * differ from its parent, all paths for a root commit, and none for a
+ * merge commit; the author date is used.  Renames aren't detected, so
+ * the old name of a renamed file is also seen as changed.  As with
+ * "git log" over the entire repository, the history isn't simplified
+ * for each path, so changes on a branch whose changes were discarded
+ * when it was merged still count.
+ *
+ * The history is walked only as far as needed to answer each lookup,
+ * and where it stopped is remembered, so each commit is visited at most
+ * once no matter how many paths are looked up.  The paths changed
+ * since an earlier commit can also be found, to bring the years
+ * remembered for that commit up to date.
+ */
+
+package org.glassfish.copyright;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+public class GitLog {
+    private final GitObjects objects;
+    private final Set<String> shallow;
+    private final String head;
+    // repository path -> year it was last changed, for paths seen so far
+    private final Map<String, String> years = new HashMap<String, String>();
+    // commits waiting to be visited, newest first
+    private final PriorityQueue<Queued> queue = new PriorityQueue<Queued>();
+    private final Set<String> seen = new HashSet<String>();
+    private long sequence;
+    private final Calendar cal = Calendar.getInstance();
+
+    /**
+     * A commit in the queue.  Commits with the same time are
+     * visited in the order they were queued.
+     */
+    private static class Queued implements Comparable<Queued> {
+	final GitObjects.Commit commit;
+	final long seq;
+
+	Queued(GitObjects.Commit commit, long seq) {
+	    this.commit = commit;
+	    this.seq = seq;
+	}
+
+	public int compareTo(Queued o) {
+	    if (commit.commitTime != o.commit.commitTime)
+		return commit.commitTime > o.commit.commitTime ? -1 : 1;
+	    return seq < o.seq ? -1 : seq > o.seq ? 1 : 0;
+	}
+    }
+
+    /**
+     * Walk the history of the repository whose git directory is gitDir.
+     */
+    public GitLog(Path gitDir) throws IOException {
+	objects = new GitObjects(gitDir);
+	shallow = objects.shallow();
+	head = objects.head();
+	if (head != null) {
+	    seen.add(head);
+	    queue.add(new Queued(objects.commit(head, false), sequence++));
+	}
+    }
+
+    /**
+     * Return the year the path, relative to the top of the repository,
+     * was last changed, or the empty string if it was never changed.
+     */
+    public synchronized String lastChanged(String path) throws IOException {
+	String year;
+	while ((year = years.get(path)) == null && !queue.isEmpty())
+	    next();
+	return year != null ? year : "";
+    }
+
+    /**
+     * Return the HEAD commit the history starts from,
+     * or null if there are no commits.
+     */
+    public String head() {
+	return head;
+    }
+
+    /**
+     * Visit the next commit.
+     */
+    private void next() throws IOException {
+	GitObjects.Commit c = queue.poll().commit;
+	String[] parents = parents(c);
+	GitObjects.Commit first = null;
+	for (String p : parents) {
+	    GitObjects.Commit pc = objects.commit(p, false);
+	    if (first == null)
+		first = pc;
+	    if (seen.add(p))
+		queue.add(new Queued(pc, sequence++));
+	}
+	changes(c, parents, first, years);
+    }
+
+    /**
+     * Return the year each path was last changed by the commits that
+     * are reachable from HEAD but not from the commit "since", as with
+     * "git log since..HEAD", or null if "since" isn't an ancestor of
+     * HEAD or isn't in the repository.
+     *
+     * As git does, the commits are walked newest first, marking the
+     * ancestors of "since" as they're found, until only those remain.
+     */
+    public synchronized Map<String, String> changedSince(String since)
+				throws IOException {
+	if (head == null)
+	    return null;
+	if (head.equals(since))
+	    return new HashMap<String, String>();
+	Map<String, Node> nodes = new HashMap<String, Node>();
+	PriorityQueue<Node> q = new PriorityQueue<Node>();
+	List<Node> visited = new ArrayList<Node>();
+	Node start;
+	try {
+	    start = node(nodes, since);
+	} catch (IOException ex) {
+	    return null;	// no longer in the repository
+	}
+	start.uninteresting = true;
+	enqueue(q, start);
+	enqueue(q, node(nodes, head));
+	int interesting = 1;
+	boolean reached = false;
+	while (interesting > 0) {
+	    Node n = q.poll();
+	    n.queued = false;
+	    if (!n.uninteresting) {
+		interesting--;
+		visited.add(n);
+	    }
+	    for (String p : parents(n.commit)) {
+		Node pn = nodes.get(p);
+		if (pn == null) {
+		    pn = node(nodes, p);
+		    pn.uninteresting = n.uninteresting;
+		    enqueue(q, pn);
+		    if (!pn.uninteresting)
+			interesting++;
+		} else if (n.uninteresting)
+		    interesting -= markUninteresting(nodes, pn);
+		else if (pn == start)
+		    reached = true;
+	    }
+	}
+	if (!reached)
+	    return null;
+
+	Map<String, String> changed = new HashMap<String, String>();
+	for (Node n : visited) {
+	    if (n.uninteresting)
+		continue;
+	    String[] parents = parents(n.commit);
+	    changes(n.commit, parents, parents.length > 0 ?
+			nodes.get(parents[0]).commit : null, changed);
+	}
+	return changed;
+    }
+
+    /**
+     * A commit in the walk for changedSince.
+     */
+    private class Node implements Comparable<Node> {
+	final GitObjects.Commit commit;
+	final long seq = sequence++;
+	boolean uninteresting;
+	boolean queued;
+
+	Node(GitObjects.Commit commit) {
+	    this.commit = commit;
+	}
+
+	public int compareTo(Node o) {
+	    if (commit.commitTime != o.commit.commitTime)
+		return commit.commitTime > o.commit.commitTime ? -1 : 1;
+	    return seq < o.seq ? -1 : seq > o.seq ? 1 : 0;
+	}
+    }
+
+    private Node node(Map<String, Node> nodes, String name)
+				throws IOException {
+	Node n = new Node(objects.commit(name, false));
+	nodes.put(name, n);
+	return n;
+    }
+
+    private static void enqueue(PriorityQueue<Node> q, Node n) {
+	n.queued = true;
+	q.add(n);
+    }
+
+    /**
+     * Mark the node and the ancestors of it that have already been
+     * seen as uninteresting, returning how many of them were queued
+     * as interesting.
+     */
+    private int markUninteresting(Map<String, Node> nodes, Node n) {
+	int count = 0;
+	Deque<Node> todo = new ArrayDeque<Node>();
+	todo.push(n);
+	while (!todo.isEmpty()) {
+	    n = todo.pop();
+	    if (n.uninteresting)
+		continue;
+	    n.uninteresting = true;
+	    if (n.queued) {
+		count++;
+		continue;	// its parents are handled when it's visited
+	    }
+	    for (String p : parents(n.commit)) {
+		Node pn = nodes.get(p);
+		if (pn != null)
+		    todo.push(pn);
+	    }
+	}
+	return count;
+    }
+
+    /**
+     * Return the parents of the commit, or none
+     * if it's the boundary of a shallow clone.
+     */
+    private String[] parents(GitObjects.Commit c) {
+	return shallow.contains(c.name) ? new String[0] : c.parents;
+    }
+
+    /**
+     * Add the paths changed by the commit, whose first parent is
+     * "first", to the years, unless they're already there.
+     * As with "git log", no changes are listed for a merge.
+     */
+    private void changes(GitObjects.Commit c, String[] parents,
+		GitObjects.Commit first, Map<String, String> years)
+		throws IOException {
+	if (parents.length > 1)
+	    return;
+	List<String> changed = new ArrayList<String>();
+	diff("", first != null ? first.tree : null, c.tree, changed);
+	String year = null;
+	for (String path : changed) {
+	    if (years.containsKey(path))
+		continue;
+	    if (year == null)
+		year = year(c);
+	    years.put(path, year);
+	}
+    }
+
+    /**
+     * Return the year of the commit's author date, in the local time zone.
+     */
+    private String year(GitObjects.Commit c) throws IOException {
+	long t = c.authorTime;
+	if (t < 0)
+	    t = objects.commit(c.name, true).authorTime;
+	cal.setTimeInMillis(t * 1000);
+	return String.valueOf(cal.get(Calendar.YEAR));
+    }
+
+    /**
+     * Add the paths that differ between the trees "a" and "b", either of
+     * which may be null, to the list.
+     */
+    private void diff(String prefix, String a, String b, List<String> changed)
+				throws IOException {
+	if (a != null && a.equals(b))
+	    return;
+	Map<String, GitObjects.TreeEntry> ae = entries(a);
+	Map<String, GitObjects.TreeEntry> be = entries(b);
+	Set<String> names = new TreeSet<String>(ae.keySet());
+	names.addAll(be.keySet());
+	for (String n : names) {
+	    GitObjects.TreeEntry x = ae.get(n);
+	    GitObjects.TreeEntry y = be.get(n);
+	    if (x != null && y != null && x.id.equals(y.id) &&
+		    x.mode == y.mode)
+		continue;
+	    String path = prefix + n;
+	    boolean xt = x != null && x.isTree();
+	    boolean yt = y != null && y.isTree();
+	    if (xt || yt)
+		diff(path + "/", xt ? x.id : null, yt ? y.id : null, changed);
+	    if ((x != null && !xt) || (y != null && !yt))
+		changed.add(path);
+	}
+    }
+
+    private Map<String, GitObjects.TreeEntry> entries(String tree)
+				throws IOException {
+	Map<String, GitObjects.TreeEntry> m =
+				new HashMap<String, GitObjects.TreeEntry>();
+	if (tree != null) {
+	    for (GitObjects.TreeEntry e : objects.tree(tree))
+		m.put(e.name, e);
+	}
+	return m;
+    }
+}
@@ -0,0 +1,770 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+/**
+ * Read objects from a git repository directly, without running git.
+ *
+ * Loose objects and objects in version 2 pack index files are supported,
+ * including deltified objects in packs.  If the repository has a
+ * commit-graph file, it's used to find the parents, tree, and commit
+ * time of a commit without reading the commit object itself.
+ *
+ * Repositories that use SHA-256 object names, alternate object
+ * directories, or multi-file commit-graph chains aren't supported (the
+ * commit-graph chain is simply not used).  Object names are handled as
+ * 40 character lower case hex strings.
+ */
+
+package org.glassfish.copyright;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.*;
+
+public class GitObjects {
+    private static final int OBJ_COMMIT = 1;
+    private static final int OBJ_TREE = 2;
+    private static final int OBJ_BLOB = 3;
+    private static final int OBJ_TAG = 4;
+    private static final int OBJ_OFS_DELTA = 6;
+    private static final int OBJ_REF_DELTA = 7;
+
+    // limit on the total size of the cached objects
+    private static final int CACHE_SIZE = 32 * 1024 * 1024;
+
+    private final Path gitDir;
+    private final Path objects;
+    private final List<Pack> packs = new ArrayList<Pack>();
+    private CommitGraph graph;
+
+    // recently read objects, keyed by object name or pack offset
+    private int cached;
+    private final Map<String, GitObject> cache =
+		new LinkedHashMap<String, GitObject>(256, 0.75f, true) {
+	    protected boolean removeEldestEntry(
+				    Map.Entry<String, GitObject> eldest) {
+		if (cached > CACHE_SIZE) {
+		    cached -= eldest.getValue().data.length;
+		    return true;
+		}
+		return false;
+	    }
+	};
+
+    /**
+     * An object: its type and its content.
+     */
+    static class GitObject {
+	final int type;
+	final byte[] data;
+
+	GitObject(int type, byte[] data) {
+	    this.type = type;
+	    this.data = data;
+	}
+    }
+
+    /**
+     * The parts of a commit needed to walk the history.
+     * The author time is only filled in if asked for.
+     */
+    static class Commit {
+	final String name;
+	String tree;
+	String[] parents;
+	long commitTime;
+	long authorTime = -1;
+
+	Commit(String name) {
+	    this.name = name;
+	}
+    }
+
+    /**
+     * An entry in a tree.
+     */
+    static class TreeEntry {
+	final int mode;
+	final String name;
+	final String id;
+
+	TreeEntry(int mode, String name, String id) {
+	    this.mode = mode;
+	    this.name = name;
+	    this.id = id;
+	}
+
+	boolean isTree() {
+	    return (mode & 0170000) == 0040000;
+	}
+    }
+
+    /**
+     * Open the object database of the git directory.
+     */
+    public GitObjects(Path gitDir) throws IOException {
+	this.gitDir = gitDir;
+	this.objects = gitDir.resolve("objects");
+	if (!Files.isDirectory(objects))
+	    throw new IOException("No objects directory: " + objects);
+	if (Files.exists(objects.resolve("info").resolve("alternates")))
+	    throw new IOException("Alternate object directories " +
+				    "not supported: " + gitDir);
+	for (String line : readLines(gitDir.resolve("config"))) {
+	    line = line.trim().toLowerCase();
+	    if (line.startsWith("objectformat") && !line.endsWith("sha1"))
+		throw new IOException("Object format not supported: " +
+					gitDir);
+	}
+	Path packDir = objects.resolve("pack");
+	if (Files.isDirectory(packDir)) {
+	    DirectoryStream<Path> ds = Files.newDirectoryStream(packDir,
+								"*.idx");
+	    try {
+		for (Path idx : ds) {
+		    String n = idx.getFileName().toString();
+		    Path pack = packDir.resolve(
+				n.substring(0, n.length() - 4) + ".pack");
+		    if (Files.exists(pack))
+			packs.add(new Pack(idx, pack));
+		}
+	    } finally {
+		ds.close();
+	    }
+	}
+	Path cg = objects.resolve("info").resolve("commit-graph");
+	if (Files.isRegularFile(cg))
+	    graph = CommitGraph.open(cg);
+    }
+
+    /**
+     * Is there a commit-graph file we can use?
+     */
+    public boolean hasCommitGraph() {
+	return graph != null;
+    }
+
+    /**
+     * Return the name of the commit HEAD refers to, or null if there's
+     * no commit yet.
+     */
+    public String head() throws IOException {
+	String ref = "HEAD";
+	for (int depth = 0; depth < 10; depth++) {
+	    String value = null;
+	    Path p = gitDir.resolve(ref);
+	    if (Files.isRegularFile(p)) {
+		List<String> lines = readLines(p);
+		if (!lines.isEmpty())
+		    value = lines.get(0).trim();
+	    } else
+		value = packedRef(ref);
+	    if (value == null)
+		return null;
+	    if (!value.startsWith("ref:"))
+		return value.toLowerCase();
+	    ref = value.substring(4).trim();
+	}
+	throw new IOException("Symbolic reference loop: " + gitDir);
+    }
+
+    /**
+     * Look up the ref in the packed-refs file.
+     */
+    private String packedRef(String ref) {
+	for (String line : readLines(gitDir.resolve("packed-refs"))) {
+	    if (line.startsWith("#") || line.startsWith("^"))
+		continue;
+	    int sp = line.indexOf(' ');
+	    if (sp > 0 && line.substring(sp + 1).equals(ref))
+		return line.substring(0, sp);
+	}
+	return null;
+    }
+
+    /**
+     * Return the commits that are the boundary of a shallow clone;
+     * their parents aren't in the repository.
+     */
+    public Set<String> shallow() {
+	return new HashSet<String>(readLines(gitDir.resolve("shallow")));
+    }
+
+    /**
+     * Read the parents, tree, and commit time of the commit.
+     * If author is true, or there's no commit-graph entry for the
+     * commit, the commit itself is read and the author time is
+     * filled in too.
+     */
+    public Commit commit(String name, boolean author) throws IOException {
+	Commit c = new Commit(name);
+	if (!author && graph != null && graph.lookup(c))
+	    return c;
+	byte[] data = read(name, OBJ_COMMIT).data;
+	List<String> parents = new ArrayList<String>();
+	int pos = 0;
+	while (pos < data.length && data[pos] != '\n') {
+	    int eol = pos;
+	    while (eol < data.length && data[eol] != '\n')
+		eol++;
+	    String line = new String(data, pos, eol - pos, "utf-8");
+	    if (line.startsWith("tree "))
+		c.tree = line.substring(5);
+	    else if (line.startsWith("parent "))
+		parents.add(line.substring(7));
+	    else if (line.startsWith("author "))
+		c.authorTime = time(line);
+	    else if (line.startsWith("committer "))
+		c.commitTime = time(line);
+	    pos = eol + 1;
+	}
+	if (c.tree == null)
+	    throw new IOException("Bad commit: " + name);
+	c.parents = parents.toArray(new String[parents.size()]);
+	return c;
+    }
+
+    /**
+     * Return the timestamp from an author or committer line, which
+     * ends with "<email> seconds timezone".
+     */
+    private static long time(String line) {
+	int gt = line.lastIndexOf('>');
+	String[] f = line.substring(gt + 1).trim().split(" ");
+	try {
+	    return Long.parseLong(f[0]);
+	} catch (NumberFormatException ex) {
+	    return 0;
+	}
+    }
+
+    /**
+     * Return the entries of the tree.
+     */
+    public List<TreeEntry> tree(String name) throws IOException {
+	byte[] data = read(name, OBJ_TREE).data;
+	List<TreeEntry> entries = new ArrayList<TreeEntry>();
+	int pos = 0;
+	while (pos < data.length) {
+	    int mode = 0;
+	    while (data[pos] != ' ')
+		mode = (mode << 3) + (data[pos++] - '0');
+	    pos++;
+	    int nul = pos;
+	    while (data[nul] != 0)
+		nul++;
+	    String n = new String(data, pos, nul - pos, "utf-8");
+	    entries.add(new TreeEntry(mode, n, hex(data, nul + 1)));
+	    pos = nul + 21;
+	}
+	return entries;
+    }
+
+    /**
+     * Return the name of the object at the path in the tree,
+     * or null if there's no such path.
+     */
+    public String lookup(String tree, String path) throws IOException {
+	String id = tree;
+	for (String n : path.split("/")) {
+	    String next = null;
+	    for (TreeEntry e : tree(id)) {
+		if (e.name.equals(n)) {
+		    next = e.id;
+		    break;
+		}
+	    }
+	    if (next == null)
+		return null;
+	    id = next;
+	}
+	return id;
+    }
+
+    /**
+     * Read the object, which must be of the expected type.
+     */
+    private GitObject read(String name, int type) throws IOException {
+	GitObject o = read(name);
+	if (o.type != type)
+	    throw new IOException("Object " + name + " is type " + o.type +
+				    ", expected " + type);
+	return o;
+    }
+
+    /**
+     * Read the object, from a pack or a loose object file.
+     */
+    synchronized GitObject read(String name) throws IOException {
+	GitObject o = cache.get(name);
+	if (o != null)
+	    return o;
+	byte[] id = unhex(name);
+	for (Pack p : packs) {
+	    long off = p.find(id);
+	    if (off >= 0) {
+		o = p.read(off);
+		break;
+	    }
+	}
+	if (o == null)
+	    o = readLoose(name);
+	put(name, o);
+	return o;
+    }
+
+    private void put(String key, GitObject o) {
+	cached += o.data.length;
+	cache.put(key, o);
+    }
+
+    /**
+     * Read a loose object, which is "type size\0data", compressed.
+     */
+    private GitObject readLoose(String name) throws IOException {
+	Path p = objects.resolve(name.substring(0, 2)).
+					resolve(name.substring(2));
+	if (!Files.isRegularFile(p))
+	    throw new IOException("Object not found: " + name);
+	byte[] raw = inflate(Files.readAllBytes(p), 0, -1);
+	int sp = 0;
+	while (raw[sp] != ' ')
+	    sp++;
+	int nul = sp;
+	while (raw[nul] != 0)
+	    nul++;
+	String t = new String(raw, 0, sp, "us-ascii");
+	int type;
+	if (t.equals("commit"))
+	    type = OBJ_COMMIT;
+	else if (t.equals("tree"))
+	    type = OBJ_TREE;
+	else if (t.equals("blob"))
+	    type = OBJ_BLOB;
+	else if (t.equals("tag"))
+	    type = OBJ_TAG;
+	else
+	    throw new IOException("Unknown object type: " + t);
+	return new GitObject(type,
+			    Arrays.copyOfRange(raw, nul + 1, raw.length));
+    }
+
+    /**
+     * A pack file and its index.
+     */
+    private class Pack {
+	final String key;
+	final ByteBuffer idx;
+	final ByteBuffer pack;
+	final int count;
+	final int namesOff, offsetsOff, largeOff;
+
+	Pack(Path idxFile, Path packFile) throws IOException {
+	    key = packFile.getFileName().toString();
+	    idx = map(idxFile);
+	    pack = map(packFile);
+	    if (idx.getInt(0) != 0xff744f63 || idx.getInt(4) != 2)
+		throw new IOException("Unsupported pack index: " + idxFile);
+	    count = idx.getInt(8 + 255 * 4);
+	    namesOff = 8 + 256 * 4;
+	    offsetsOff = namesOff + count * 24;	// names, then CRCs
+	    largeOff = offsetsOff + count * 4;
+	}
+
+	/**
+	 * Return the offset of the object in the pack, or -1.
+	 */
+	long find(byte[] id) {
+	    int first = id[0] & 0xff;
+	    int lo = first == 0 ? 0 : idx.getInt(8 + (first - 1) * 4);
+	    int hi = idx.getInt(8 + first * 4);
+	    while (lo < hi) {
+		int mid = (lo + hi) >>> 1;
+		int cmp = compare(idx, namesOff + mid * 20, id);
+		if (cmp == 0) {
+		    int off = idx.getInt(offsetsOff + mid * 4);
+		    if ((off & 0x80000000) == 0)
+			return off;
+		    return idx.getLong(largeOff + (off & 0x7fffffff) * 8);
+		} else if (cmp < 0)
+		    lo = mid + 1;
+		else
+		    hi = mid;
+	    }
+	    return -1;
+	}
+
+	/**
+	 * Read the object at the offset, applying deltas.
+	 */
+	GitObject read(long offset) throws IOException {
+	    String ck = key + "@" + offset;
+	    GitObject o = cache.get(ck);
+	    if (o != null)
+		return o;
+	    int pos = position(offset);
+	    int b = pack.get(pos++) & 0xff;
+	    int type = (b >> 4) & 7;
+	    long size = b & 0x0f;
+	    int shift = 4;
+	    while ((b & 0x80) != 0) {
+		b = pack.get(pos++) & 0xff;
+		size |= (long)(b & 0x7f) << shift;
+		shift += 7;
+	    }
+	    if (type == OBJ_OFS_DELTA) {
+		b = pack.get(pos++) & 0xff;
+		long rel = b & 0x7f;
+		while ((b & 0x80) != 0) {
+		    b = pack.get(pos++) & 0xff;
+		    rel = ((rel + 1) << 7) | (b & 0x7f);
+		}
+		GitObject base = read(offset - rel);
+		o = new GitObject(base.type,
+			    applyDelta(base.data, inflate(pos, size)));
+	    } else if (type == OBJ_REF_DELTA) {
+		byte[] id = new byte[20];
+		for (int i = 0; i < 20; i++)
+		    id[i] = pack.get(pos++);
+		GitObject base = GitObjects.this.read(hex(id, 0));
+		o = new GitObject(base.type,
+			    applyDelta(base.data, inflate(pos, size)));
+	    } else if (type >= OBJ_COMMIT && type <= OBJ_TAG)
+		o = new GitObject(type, inflate(pos, size));
+	    else
+		throw new IOException("Bad object type " + type + " in " +
+					key + " at " + offset);
+	    put(ck, o);
+	    return o;
+	}
+
+	private int position(long offset) throws IOException {
+	    if (offset < 12 || offset >= pack.limit())
+		throw new IOException("Bad offset in " + key + ": " + offset);
+	    return (int)offset;
+	}
+
+	/**
+	 * Inflate the compressed data at pos in the pack.
+	 */
+	private byte[] inflate(int pos, long size) throws IOException {
+	    if (size > Integer.MAX_VALUE)
+		throw new IOException("Object too large in " + key);
+	    ByteBuffer bb = pack.duplicate();
+	    bb.position(pos);
+	    Inflater inf = new Inflater();
+	    try {
+		byte[] out = new byte[(int)size];
+		byte[] in = new byte[8192];
+		int n = 0;
+		while (n < out.length) {
+		    if (inf.needsInput()) {
+			int len = Math.min(in.length, bb.remaining());
+			if (len == 0)
+			    throw new IOException("Truncated pack: " + key);
+			bb.get(in, 0, len);
+			inf.setInput(in, 0, len);
+		    }
+		    int r = inf.inflate(out, n, out.length - n);
+		    n += r;
+		    if (r == 0 && (inf.finished() || inf.needsDictionary()))
+			throw new IOException("Bad pack data: " + key);
+		}
+		return out;
+	    } catch (DataFormatException ex) {
+		throw new IOException("Bad pack data in " + key + ": " + ex);
+	    } finally {
+		inf.end();
+	    }
+	}
+    }
+
+    /**
+     * Apply the delta to the base object.  The delta is the size of
+     * the base, the size of the result, and then a sequence of
+     * instructions to copy from the base or insert new data.
+     */
+    private static byte[] applyDelta(byte[] base, byte[] delta)
+				throws IOException {
+	int[] pos = { 0 };
+	long baseSize = varint(delta, pos);
+	long size = varint(delta, pos);
+	if (baseSize != base.length || size > Integer.MAX_VALUE)
+	    throw new IOException("Bad delta");
+	byte[] out = new byte[(int)size];
+	int p = pos[0];
+	int n = 0;
+	while (p < delta.length) {
+	    int op = delta[p++] & 0xff;
+	    if ((op & 0x80) != 0) {
+		int off = 0, len = 0;
+		for (int i = 0; i < 4; i++)
+		    if ((op & (1 << i)) != 0)
+			off |= (delta[p++] & 0xff) << (8 * i);
+		for (int i = 0; i < 3; i++)
+		    if ((op & (0x10 << i)) != 0)
+			len |= (delta[p++] & 0xff) << (8 * i);
+		if (len == 0)
+		    len = 0x10000;
+		System.arraycopy(base, off, out, n, len);
+		n += len;
+	    } else if (op != 0) {
+		System.arraycopy(delta, p, out, n, op);
+		p += op;
+		n += op;
+	    } else
+		throw new IOException("Bad delta instruction");
+	}
+	if (n != out.length)
+	    throw new IOException("Bad delta size");
+	return out;
+    }
+
+    private static long varint(byte[] b, int[] pos) {
+	long v = 0;
+	int shift = 0;
+	int c;
+	do {
+	    c = b[pos[0]++] & 0xff;
+	    v |= (long)(c & 0x7f) << shift;
+	    shift += 7;
+	} while ((c & 0x80) != 0);
+	return v;
+    }
+
+    /**
+     * A single commit-graph file.
+     */
+    private static class CommitGraph {
+	final ByteBuffer buf;
+	final int fanout, names, data, edges;
+	final int count;
+
+	private CommitGraph(ByteBuffer buf, int fanout, int names, int data,
+				int edges) {
+	    this.buf = buf;
+	    this.fanout = fanout;
+	    this.names = names;
+	    this.data = data;
+	    this.edges = edges;
+	    this.count = buf.getInt(fanout + 255 * 4);
+	}
+
+	/**
+	 * Open the commit-graph file, or return null if it can't be used.
+	 */
+	static CommitGraph open(Path file) throws IOException {
+	    ByteBuffer buf = map(file);
+	    if (buf.limit() < 8 || buf.getInt(0) != 0x43475048 ||
+		    buf.get(4) != 1 || buf.get(5) != 1 || buf.get(7) != 0)
+		return null;	// not version 1, SHA-1, without a chain
+	    int nchunks = buf.get(6) & 0xff;
+	    int fanout = -1, names = -1, data = -1, edges = -1;
+	    for (int i = 0; i < nchunks; i++) {
+		int id = buf.getInt(8 + i * 12);
+		int off = (int)buf.getLong(8 + i * 12 + 4);
+		if (id == 0x4f494446)		// OIDF
+		    fanout = off;
+		else if (id == 0x4f49444c)	// OIDL
+		    names = off;
+		else if (id == 0x43444154)	// CDAT
+		    data = off;
+		else if (id == 0x45444745)	// EDGE
+		    edges = off;
+	    }
+	    if (fanout < 0 || names < 0 || data < 0)
+		return null;
+	    return new CommitGraph(buf, fanout, names, data, edges);
+	}
+
+	/**
+	 * Fill in the commit from the graph.
+	 * Return false if it's not in the graph.
+	 */
+	boolean lookup(Commit c) {
+	    int i = find(unhex(c.name));
+	    if (i < 0)
+		return false;
+	    int d = data + i * 36;
+	    c.tree = hex(buf, d);
+	    List<String> parents = new ArrayList<String>(2);
+	    int p1 = buf.getInt(d + 20);
+	    int p2 = buf.getInt(d + 24);
+	    if (p1 != 0x70000000)
+		parents.add(hex(buf, names + p1 * 20));
+	    if (p2 != 0x70000000) {
+		if ((p2 & 0x80000000) == 0)
+		    parents.add(hex(buf, names + p2 * 20));
+		else if (edges >= 0) {
+		    // an octopus merge; the rest are in the edge list
+		    int e = edges + (p2 & 0x7fffffff) * 4;
+		    int p;
+		    do {
+			p = buf.getInt(e);
+			parents.add(hex(buf, names + (p & 0x7fffffff) * 20));
+			e += 4;
+		    } while ((p & 0x80000000) == 0);
+		} else
+		    return false;
+	    }
+	    c.parents = parents.toArray(new String[parents.size()]);
+	    c.commitTime = ((long)(buf.getInt(d + 28) & 3) << 32) |
+				(buf.getInt(d + 32) & 0xffffffffL);
+	    return true;
+	}
+
+	private int find(byte[] id) {
+	    int first = id[0] & 0xff;
+	    int lo = first == 0 ? 0 : buf.getInt(fanout + (first - 1) * 4);
+	    int hi = buf.getInt(fanout + first * 4);
+	    while (lo < hi) {
+		int mid = (lo + hi) >>> 1;
+		int cmp = compare(buf, names + mid * 20, id);
+		if (cmp == 0)
+		    return mid;
+		else if (cmp < 0)
+		    lo = mid + 1;
+		else
+		    hi = mid;
+	    }
+	    return -1;
+	}
+    }
+
+    /**
+     * Map the entire file into memory.
+     */
+    private static ByteBuffer map(Path file) throws IOException {
+	FileChannel fc = FileChannel.open(file, StandardOpenOption.READ);
+	try {
+	    if (fc.size() > Integer.MAX_VALUE)
+		throw new IOException("File too large: " + file);
+	    return fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size());
+	} finally {
+	    fc.close();
+	}
+    }
+
+    /**
+     * Inflate all of the compressed data in b starting at off.
+     */
+    private static byte[] inflate(byte[] b, int off, int size)
+				throws IOException {
+	Inflater inf = new Inflater();
+	try {
+	    inf.setInput(b, off, b.length - off);
+	    ByteArrayOutputStream bos = new ByteArrayOutputStream(
+				size > 0 ? size : Math.max(b.length * 4, 64));
+	    byte[] buf = new byte[8192];
+	    while (!inf.finished()) {
+		int n = inf.inflate(buf);
+		if (n == 0 && (inf.needsInput() || inf.needsDictionary()))
+		    throw new IOException("Truncated object");
+		bos.write(buf, 0, n);
+	    }
+	    return bos.toByteArray();
+	} catch (DataFormatException ex) {
+	    throw new IOException("Bad object: " + ex);
+	} finally {
+	    inf.end();
+	}
+    }
+
+    private static int compare(ByteBuffer buf, int off, byte[] id) {
+	for (int i = 0; i < 20; i++) {
+	    int a = buf.get(off + i) & 0xff;
+	    int b = id[i] & 0xff;
+	    if (a != b)
+		return a - b;
+	}
+	return 0;
+    }
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    static String hex(byte[] b, int off) {
+	char[] c = new char[40];
+	for (int i = 0; i < 20; i++) {
+	    c[i * 2] = HEX[(b[off + i] >> 4) & 0xf];
+	    c[i * 2 + 1] = HEX[b[off + i] & 0xf];
+	}
+	return new String(c);
+    }
+
+    private static String hex(ByteBuffer buf, int off) {
+	byte[] b = new byte[20];
+	for (int i = 0; i < 20; i++)
+	    b[i] = buf.get(off + i);
+	return hex(b, 0);
+    }
+
+    static byte[] unhex(String s) {
+	byte[] b = new byte[20];
+	for (int i = 0; i < 20; i++)
+	    b[i] = (byte)Integer.parseInt(s.substring(i * 2, i * 2 + 2), 16);
+	return b;
+    }
+
+    /**
+     * Read the lines of the file, or none if it can't be read.
+     */
+    private static List<String> readLines(Path file) {
+	List<String> lines = new ArrayList<String>();
+	if (!Files.isRegularFile(file))
+	    return lines;
+	try {
+	    BufferedReader r = new BufferedReader(new InputStreamReader(
+				new FileInputStream(file.toFile()), "utf-8"));
+	    try {
+		String line;
+		while ((line = r.readLine()) != null)
+		    lines.add(line);
+	    } finally {
+		r.close();
+	    }
+	} catch (IOException ex) {
+	    // ignore it
+	}
+	return lines;
+    }
+}
@@ -74,7 +74,7 @@ public class MarkdownCopyright extends AbstractCopyright {
      * Read the first comment block in the file.
      */
     protected String readComment(BufferedReader r) throws IOException {
-	StringBuilder comment = new StringBuilder();
+	StringBuilder comment = commentBuffer();
 	String line;
 	// skip blank lines at beginning of file
 	while ((line = r.readLine()) != null) {
@@ -89,17 +89,20 @@ public class MarkdownCopyright extends AbstractCopyright {
 		break;		// end of comment
 	    if (!line.startsWith(commentPrefix))
 		break;		// end of comment
-	    line = line.substring(commentPrefix.length());
-	    if (line.endsWith(commentSuffix))
-		line = line.substring(0,
-					line.length() - commentSuffix.length());
-	    comment.append(strip(line).replace("''", "\"")).append('\n');
+	    int start = commentPrefix.length();
+	    int end = line.length();
+	    if (line.endsWith(commentSuffix) &&
+		    end - commentSuffix.length() >= start)
+		end -= commentSuffix.length();
+	    int cstart = comment.length();
+	    appendStripped(comment, line, start, end);
+	    // two single quotes stand for a double quote
+	    for (int i = cstart; i < comment.length() - 1; i++) {
+		if (comment.charAt(i) == '\'' && comment.charAt(i + 1) == '\'')
+		    comment.replace(i, i + 2, "\"");
+	    }
 	} while ((line = r.readLine()) != null);
-	int len = comment.length();
-	if (len >= 2 && comment.charAt(len - 1) == '\n' &&
-		comment.charAt(len - 2) == '\n')
-	    comment.setLength(len - 1);
-	return comment.toString();
+	return commentText(comment);
     }
 
     /**
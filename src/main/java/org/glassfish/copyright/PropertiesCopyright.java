@@ -78,7 +78,7 @@ public class PropertiesCopyright extends AbstractCopyright {
      * Read the first comment block in the file.
      */
     protected String readComment(BufferedReader r) throws IOException {
-	StringBuilder comment = new StringBuilder();
+	StringBuilder comment = commentBuffer();
 	String line;
 	// skip blank lines at beginning of file
 	while ((line = r.readLine()) != null) {
@@ -98,20 +98,10 @@ public class PropertiesCopyright extends AbstractCopyright {
 		break;		// end of comment
 	    if (!line.startsWith("#"))
 		break;		// end of comment
-	    if (line.length() >= prefix.length()) {
-		if (line.startsWith(prefix))
-		    line = line.substring(prefix.length());
-	    } else {
-		if (prefix.startsWith(line))
-		    line = "";
-	    }
-	    comment.append(strip(line)).append('\n');
+	    appendStripped(comment, line, skipPrefix(line, prefix),
+							line.length());
 	} while ((line = r.readLine()) != null);
-	int len = comment.length();
-	if (len >= 2 && comment.charAt(len - 1) == '\n' &&
-		comment.charAt(len - 2) == '\n')
-	    comment.setLength(len - 1);
-	return comment.toString();
+	return commentText(comment);
     }
 
     /**
@@ -61,6 +61,14 @@ public class RepairCopyrightMojo extends AbstractCopyrightMojo {
      */
     private boolean update = true;
 
+    /**
+     * Number of files to repair at once, while the files after them
+     * are checked; zero to repair them in turn.
+     *
+     * @parameter expression="${copyright.repairthreads}" default-value="0"
+     */
+    private int repairThreads;
+
     public void execute() throws MojoExecutionException {
 	log = getLog();
 
@@ -69,7 +77,15 @@ public class RepairCopyrightMojo extends AbstractCopyrightMojo {
 	c.dontUpdate = !update;
 	log.debug("copyright: update: " + update);
 	initializeOptions(c);
+	c.repairThreads = repairThreads;
 
 	check(c);
+
+	CheckResult r = c.getResult();
+	log.debug("copyright: repaired: " +
+		    r.get(CheckResult.Count.REPAIRED));
+	long failed = r.get(CheckResult.Count.REPAIR_FAILED);
+	if (failed > 0)
+	    log.warn("Files that couldn't be repaired: " + failed);
     }
 }
@@ -0,0 +1,384 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+/**
+ * Find out whether files are ignored by git or Mercurial, by reading
+ * the ignore files directly rather than running the SCM.
+ *
+ * For git, the .gitignore file in each directory from the top of the
+ * repository down to the file is used, along with .git/info/exclude.
+ * As with git, a pattern in a .gitignore file in a deeper directory
+ * overrides one in a higher directory, the last matching pattern in a
+ * file wins, and a pattern starting with "!" re-includes a file.  The
+ * user's global excludes file (core.excludesFile) is not used.
+ *
+ * For Mercurial, the .hgignore file at the top of the repository is used,
+ * with both the "regexp" and "glob" syntaxes.
+ *
+ * As with the SCMs, a file in an ignored directory is ignored too, even
+ * if a pattern would re-include it.
+ *
+ * Only the ignore files are used, so a file that's been added to the
+ * repository anyway is still reported as ignored.  The caller has to
+ * check whether it's tracked.
+ */
+
+package org.glassfish.copyright;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.*;
+
+public class ScmIgnores {
+    // directory -> top of the repository it's in, or NONE
+    private final Map<Path, Path> tops = new HashMap<Path, Path>();
+    // directory -> rules from the ignore files that apply to that directory
+    private final Map<Path, List<Rule>> rules =
+				    new HashMap<Path, List<Rule>>();
+    // directory -> whether it, or a directory it's in, is ignored
+    private final Map<Path, Boolean> ignoredDirs =
+				    new HashMap<Path, Boolean>();
+
+    private static final Path NONE = Paths.get("");
+
+    /**
+     * A single pattern from an ignore file.
+     */
+    private static class Rule {
+	final Path base;	// directory the pattern is relative to
+	final Pattern pattern;
+	final boolean negate;
+	final boolean dirOnly;
+	final boolean find;	// match anywhere, not the whole path
+
+	Rule(Path base, Pattern pattern, boolean negate, boolean dirOnly,
+		boolean find) {
+	    this.base = base;
+	    this.pattern = pattern;
+	    this.negate = negate;
+	    this.dirOnly = dirOnly;
+	    this.find = find;
+	}
+
+	/**
+	 * Return true if the rule matches the path.
+	 */
+	boolean matches(Path path, boolean isDir) {
+	    if (dirOnly && !isDir)
+		return false;
+	    if (!path.startsWith(base))
+		return false;
+	    String rel = base.relativize(path).toString().
+					replace(File.separatorChar, '/');
+	    Matcher m = pattern.matcher(rel);
+	    return find ? m.find() : m.matches();
+	}
+    }
+
+    /**
+     * Is the file, which is a directory if isDir is true,
+     * ignored by the SCM?
+     */
+    public synchronized boolean isIgnored(File file, boolean isDir) {
+	Path path = file.toPath().toAbsolutePath().normalize();
+	Path dir = path.getParent();
+	if (dir == null)
+	    return false;
+	return isIgnoredDir(dir) || isIgnored(path, isDir, rulesFor(dir));
+    }
+
+    /**
+     * Is the directory, or a directory it's in below the top of the
+     * repository, ignored?
+     */
+    private boolean isIgnoredDir(Path dir) {
+	Boolean ignored = ignoredDirs.get(dir);
+	if (ignored != null)
+	    return ignored.booleanValue();
+	Path top = top(dir);
+	Path parent = dir.getParent();
+	boolean ig = top != NONE && !dir.equals(top) && parent != null &&
+		(isIgnoredDir(parent) ||
+		    isIgnored(dir, true, rulesFor(parent)));
+	ignoredDirs.put(dir, Boolean.valueOf(ig));
+	return ig;
+    }
+
+    private static boolean isIgnored(Path path, boolean isDir,
+				List<Rule> rl) {
+	// the last matching rule wins
+	for (int i = rl.size() - 1; i >= 0; i--) {
+	    Rule r = rl.get(i);
+	    if (r.matches(path, isDir))
+		return !r.negate;
+	}
+	return false;
+    }
+
+    /**
+     * Return the rules that apply to files in the directory, in
+     * increasing order of precedence.
+     */
+    private List<Rule> rulesFor(Path dir) {
+	List<Rule> rl = rules.get(dir);
+	if (rl != null)
+	    return rl;
+	Path top = top(dir);
+	if (top == NONE)
+	    rl = Collections.emptyList();
+	else if (Files.exists(top.resolve(".hg")))
+	    rl = dir.equals(top) ? readHgIgnore(top) : rulesFor(top);
+	else if (dir.equals(top)) {
+	    rl = new ArrayList<Rule>();
+	    Path git = top.resolve(".git");
+	    if (Files.isDirectory(git))
+		readGitIgnore(top, git.resolve("info").resolve("exclude"),
+				rl);
+	    readGitIgnore(top, top.resolve(".gitignore"), rl);
+	} else {
+	    List<Rule> parent = rulesFor(dir.getParent());
+	    rl = new ArrayList<Rule>(parent);
+	    readGitIgnore(dir, dir.resolve(".gitignore"), rl);
+	    if (rl.size() == parent.size())
+		rl = parent;	// share the list
+	}
+	rules.put(dir, rl);
+	return rl;
+    }
+
+    /**
+     * Return the top directory of the repository containing dir,
+     * or NONE if it's not in a repository.
+     */
+    private Path top(Path dir) {
+	Path top = tops.get(dir);
+	if (top != null)
+	    return top;
+	if (Files.exists(dir.resolve(".git")) ||
+		Files.exists(dir.resolve(".hg")))
+	    top = dir;
+	else if (dir.getParent() == null)
+	    top = NONE;
+	else
+	    top = top(dir.getParent());
+	tops.put(dir, top);
+	return top;
+    }
+
+    /**
+     * Add the rules from the git ignore file to the list.
+     */
+    private static void readGitIgnore(Path base, Path file, List<Rule> rl) {
+	for (String line : readLines(file)) {
+	    Rule r = gitRule(base, line);
+	    if (r != null)
+		rl.add(r);
+	}
+    }
+
+    /**
+     * Convert a line of a .gitignore file into a rule.
+     */
+    private static Rule gitRule(Path base, String line) {
+	// trailing spaces are ignored unless quoted with a backslash
+	int end = line.length();
+	while (end > 0 && line.charAt(end - 1) == ' ' &&
+		!(end > 1 && line.charAt(end - 2) == '\\'))
+	    end--;
+	line = line.substring(0, end);
+	if (line.length() == 0 || line.startsWith("#"))
+	    return null;
+	boolean negate = false;
+	if (line.startsWith("!")) {
+	    negate = true;
+	    line = line.substring(1);
+	} else if (line.startsWith("\\!") || line.startsWith("\\#"))
+	    line = line.substring(1);
+	boolean dirOnly = false;
+	if (line.endsWith("/")) {
+	    dirOnly = true;
+	    line = line.substring(0, line.length() - 1);
+	}
+	if (line.length() == 0)
+	    return null;
+	// a pattern with a slash is relative to the directory
+	// of the .gitignore file, otherwise it matches at any level
+	boolean anchored = line.indexOf('/') >= 0;
+	if (line.startsWith("/"))
+	    line = line.substring(1);
+	String re = globToRegex(line);
+	if (!anchored)
+	    re = "(?:.*/)?" + re;
+	try {
+	    return new Rule(base, Pattern.compile(re), negate, dirOnly, false);
+	} catch (PatternSyntaxException ex) {
+	    return null;	// ignore it
+	}
+    }
+
+    /**
+     * Read the .hgignore file.
+     */
+    private static List<Rule> readHgIgnore(Path top) {
+	List<Rule> rl = new ArrayList<Rule>();
+	boolean glob = false;
+	for (String line : readLines(top.resolve(".hgignore"))) {
+	    // "#" starts a comment, "\#" is a literal "#"
+	    int i = -1;
+	    while ((i = line.indexOf('#', i + 1)) >= 0) {
+		if (i == 0 || line.charAt(i - 1) != '\\') {
+		    line = line.substring(0, i);
+		    break;
+		}
+	    }
+	    line = line.replace("\\#", "#").trim();
+	    if (line.length() == 0)
+		continue;
+	    if (line.startsWith("syntax:")) {
+		String s = line.substring(7).trim();
+		glob = s.equals("glob");
+		continue;
+	    }
+	    boolean g = glob;
+	    if (line.startsWith("glob:") || line.startsWith("relglob:")) {
+		g = true;
+		line = line.substring(line.indexOf(':') + 1);
+	    } else if (line.startsWith("re:") || line.startsWith("regexp:") ||
+		    line.startsWith("relre:")) {
+		g = false;
+		line = line.substring(line.indexOf(':') + 1);
+	    }
+	    try {
+		if (g)
+		    // glob patterns match at any level and
+		    // also match everything under a directory
+		    rl.add(new Rule(top, Pattern.compile(
+			"(?:^|/)" + globToRegex(line) + "(?:/|$)"),
+			false, false, true));
+		else
+		    rl.add(new Rule(top, Pattern.compile(line),
+			false, false, true));
+	    } catch (PatternSyntaxException ex) {
+		// ignore it
+	    }
+	}
+	return rl;
+    }
+
+    /**
+     * Convert a glob pattern, as used in ignore files, to a regular
+     * expression.  "*" and "?" don't match "/", "**" matches anything.
+     */
+    private static String globToRegex(String glob) {
+	StringBuilder sb = new StringBuilder();
+	int len = glob.length();
+	for (int i = 0; i < len; i++) {
+	    char c = glob.charAt(i);
+	    switch (c) {
+	    case '*':
+		if (i + 1 < len && glob.charAt(i + 1) == '*') {
+		    i++;
+		    if (i + 1 < len && glob.charAt(i + 1) == '/') {
+			// "**/" matches zero or more directories
+			i++;
+			sb.append("(?:.*/)?");
+		    } else
+			sb.append(".*");
+		} else
+		    sb.append("[^/]*");
+		break;
+	    case '?':
+		sb.append("[^/]");
+		break;
+	    case '[':
+		int j = glob.indexOf(']', i + 2);
+		if (j < 0) {
+		    sb.append("\\[");
+		    break;
+		}
+		String set = glob.substring(i + 1, j);
+		if (set.startsWith("!"))
+		    set = "^" + set.substring(1);
+		sb.append('[').append(set.replace("\\", "\\\\").
+				replace("[", "\\[")).append(']');
+		i = j;
+		break;
+	    case '\\':
+		if (i + 1 < len)
+		    c = glob.charAt(++i);
+		sb.append(Pattern.quote(String.valueOf(c)));
+		break;
+	    default:
+		if (Character.isLetterOrDigit(c) || c == '/')
+		    sb.append(c);
+		else
+		    sb.append(Pattern.quote(String.valueOf(c)));
+		break;
+	    }
+	}
+	return sb.toString();
+    }
+
+    /**
+     * Read the lines of the file, or none if it can't be read.
+     */
+    private static List<String> readLines(Path file) {
+	List<String> lines = new ArrayList<String>();
+	if (!Files.isRegularFile(file))
+	    return lines;
+	BufferedReader r = null;
+	try {
+	    r = new BufferedReader(new InputStreamReader(
+				new FileInputStream(file.toFile()), "utf-8"));
+	    String line;
+	    while ((line = r.readLine()) != null)
+		lines.add(line);
+	} catch (IOException ex) {
+	    // ignore it
+	} finally {
+	    try {
+		if (r != null)
+		    r.close();
+	    } catch (IOException ioex) { }
+	}
+	return lines;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+/**
+ * Find the root directories of the repositories containing files.
+ * The SCM command that prints the root directory is run at most once
+ * for each directory that isn't under a root directory already found.
+ * Alternatively, the root directory can be found without running any
+ * command by looking for a marker file, such as ".git", in the directory
+ * and its parents.
+ */
+
+package org.glassfish.copyright;
+
+import java.io.*;
+import java.util.*;
+
+public class ScmRoots {
+    private final String[] cmd;
+    private final String marker;
+    // when using a marker, directory -> root directory, or "" if none
+    private final Map<String, String> dirs = new HashMap<String, String>();
+    private final List<String> roots = new ArrayList<String>();
+    // directories known not to be in a repository
+    private final Set<String> noRepo = new HashSet<String>();
+
+    /**
+     * Use the command "cmd" to find the root directory of the
+     * repository containing the current directory.
+     */
+    public ScmRoots(String... cmd) {
+	this.cmd = cmd;
+	this.marker = null;
+    }
+
+    private ScmRoots(String[] cmd, String marker) {
+	this.cmd = cmd;
+	this.marker = marker;
+    }
+
+    /**
+     * Find the root directory of a repository by looking for the
+     * file or directory named "marker" in it.
+     */
+    public static ScmRoots forMarker(String marker) {
+	return new ScmRoots(null, marker);
+    }
+
+    /**
+     * Return the root directory of the repository containing the
+     * file with the canonical path "path", or null if the file isn't
+     * in a repository.
+     */
+    public synchronized String find(String path) throws IOException {
+	if (marker != null) {
+	    File dir = new File(path).getParentFile();
+	    if (dir == null)
+		return null;
+	    String root = findMarker(dir);
+	    return root.length() > 0 ? root : null;
+	}
+	for (String root : roots) {
+	    if (path.startsWith(root) && path.length() > root.length() &&
+		    path.charAt(root.length()) == File.separatorChar)
+		return root;
+	}
+	File dir = new File(path).getParentFile();
+	if (dir == null || noRepo.contains(dir.getPath()))
+	    return null;
+
+	ProcessBuilder pb = new ProcessBuilder(cmd);
+	pb.directory(dir);
+	pb.redirectErrorStream(true);
+	Process p = pb.start();
+	p.getOutputStream().close();
+	BufferedReader r = new BufferedReader(new InputStreamReader(
+						p.getInputStream(), "utf-8"));
+	String root = r.readLine();
+	while (r.readLine() != null)
+	    ;
+	r.close();
+	if (waitFor(p) != 0 || root == null || root.length() == 0) {
+	    noRepo.add(dir.getPath());
+	    return null;
+	}
+	root = new File(root.trim()).getCanonicalPath();
+	roots.add(root);
+	return root;
+    }
+
+    /**
+     * Return the root directory containing dir, which is the nearest
+     * directory containing the marker, or "" if none.
+     */
+    private String findMarker(File dir) {
+	String root = dirs.get(dir.getPath());
+	if (root != null)
+	    return root;
+	if (new File(dir, marker).exists())
+	    root = dir.getPath();
+	else if (dir.getParentFile() == null)
+	    root = "";
+	else
+	    root = findMarker(dir.getParentFile());
+	dirs.put(dir.getPath(), root);
+	return root;
+    }
+
+    /**
+     * Return the path of the file relative to the root directory,
+     * using "/" as the separator as the SCM commands do.
+     */
+    public static String relativePath(String root, String path) {
+	return path.substring(root.length() + 1).
+					replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Wait for the process to exit and return its exit status.
+     */
+    static int waitFor(Process p) {
+	try {
+	    return p.waitFor();
+	} catch (InterruptedException ex) {
+	    return -1;
+	}
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+/**
+ * Find out whether files have been modified locally.
+ * Rather than running "git status", "hg status", or "svn status" for
+ * each file, the status of the entire working tree is read the first
+ * time a file in that working tree is looked up, and the set of files
+ * that are modified or added is remembered.
+ *
+ * Only the first lookup in each working tree waits for its status;
+ * lookups in other working trees, and later lookups in the same one,
+ * go ahead in parallel.
+ *
+ * The root of an svn working tree is found using
+ * "svn info --show-item wc-root", which needs svn 1.9 or later.  If the
+ * root can't be found, "svn status" is run for just the file instead.
+ */
+
+package org.glassfish.copyright;
+
+import java.io.*;
+import java.util.*;
+
+public class ScmStatus {
+    private final String scm;
+    private final ScmRoots roots;
+    // for git, if not null, used instead of running "git status"
+    private final GitIndex index;
+    // working tree root directory -> its status
+    private final Map<String, Tree> trees = new HashMap<String, Tree>();
+
+    /**
+     * The status of one working tree, read the first time it's needed
+     * while holding the lock on the Tree.
+     */
+    private class Tree {
+	final String root;
+	// modified and added paths
+	private volatile Set<String> modified;
+
+	Tree(String root) {
+	    this.root = root;
+	}
+
+	Set<String> modified() throws IOException {
+	    Set<String> m = modified;
+	    if (m == null) {
+		synchronized (this) {
+		    m = modified;
+		    if (m == null)
+			modified = m = loadStatus(new File(root), null);
+		}
+	    }
+	    return m;
+	}
+    }
+
+    /**
+     * Find the status of files using the SCM "scm", which is one of
+     * "git", "hg", or "svn".
+     */
+    public ScmStatus(String scm) {
+	this(scm, null);
+    }
+
+    /**
+     * Find the status of files using the SCM "scm".  For git, if index
+     * isn't null, find the status by reading the index and the objects
+     * in the repository, if possible, rather than running "git status".
+     */
+    public ScmStatus(String scm, GitIndex index) {
+	this.scm = scm;
+	this.index = index;
+	if (scm.equals("git"))
+	    roots = new ScmRoots("git", "rev-parse", "--show-toplevel");
+	else if (scm.equals("hg"))
+	    roots = new ScmRoots("hg", "root");
+	else
+	    roots = new ScmRoots("svn", "info", "--show-item", "wc-root");
+    }
+
+    /**
+     * Has the file been modified or added locally?
+     */
+    public boolean isModified(File file) throws IOException {
+	if (index != null) {
+	    Boolean modified = index.isModified(file);
+	    if (modified != null)
+		return modified.booleanValue();
+	}
+	String path = file.getCanonicalPath();
+	String root = roots.find(path);
+	if (root == null) {
+	    if (!scm.equals("svn"))
+		return false;
+	    // maybe an older svn, ask about just this file
+	    File f = new File(path);
+	    return !loadStatus(f.getParentFile(), f.getName()).isEmpty();
+	}
+	return tree(root).modified().contains(
+					ScmRoots.relativePath(root, path));
+    }
+
+    /**
+     * Return the status of the working tree.
+     */
+    private Tree tree(String root) {
+	synchronized (trees) {
+	    Tree t = trees.get(root);
+	    if (t == null) {
+		t = new Tree(root);
+		trees.put(root, t);
+	    }
+	    return t;
+	}
+    }
+
+    /**
+     * Run the status command in the directory, over the entire working
+     * tree or only the named file if it isn't null, and return the
+     * paths, relative to the directory, that are modified or added.
+     * As when checking a single file, a file is modified if the first
+     * status character reported for it is "M" or "A".
+     */
+    private Set<String> loadStatus(File dir, String file)
+				throws IOException {
+	Set<String> modified = new HashSet<String>();
+	ProcessBuilder pb;
+	if (scm.equals("git"))
+	    pb = new ProcessBuilder("git", "status", "--porcelain", "-z");
+	else if (scm.equals("hg"))
+	    pb = new ProcessBuilder("hg", "status");
+	else
+	    pb = new ProcessBuilder("svn", "status");
+	if (file != null)
+	    pb.command().add(file);
+	pb.directory(dir);
+	pb.redirectErrorStream(true);
+	Process p = pb.start();
+	p.getOutputStream().close();
+	BufferedReader r = new BufferedReader(new InputStreamReader(
+						p.getInputStream(), "utf-8"));
+	if (scm.equals("git"))
+	    readGitStatus(r, modified);
+	else
+	    readStatus(r, modified);
+	r.close();
+	ScmRoots.waitFor(p);
+	return modified;
+    }
+
+    /**
+     * Read "git status --porcelain -z" output.  Each entry is two status
+     * characters, a space, and the path, terminated by a NUL.  Renames
+     * and copies are followed by the original path, also terminated by
+     * a NUL.  The new path of a rename or copy is reported as added when
+     * running "git status" on just that file, so treat it the same here.
+     */
+    private static void readGitStatus(Reader r, Set<String> modified)
+				throws IOException {
+	String entry;
+	while ((entry = readEntry(r)) != null) {
+	    if (entry.length() < 4)
+		continue;
+	    char x = entry.charAt(0);
+	    char y = entry.charAt(1);
+	    char st = x != ' ' ? x : y;
+	    if (st == 'M' || st == 'A' || st == 'R' || st == 'C')
+		modified.add(entry.substring(3));
+	    if (x == 'R' || x == 'C')
+		readEntry(r);		// skip original path
+	}
+    }
+
+    /**
+     * Read a NUL terminated entry, returning null at EOF.
+     */
+    private static String readEntry(Reader r) throws IOException {
+	StringBuilder sb = new StringBuilder();
+	int c;
+	while ((c = r.read()) != 0) {
+	    if (c == -1)
+		return sb.length() > 0 ? sb.toString() : null;
+	    sb.append((char)c);
+	}
+	return sb.toString();
+    }
+
+    /**
+     * Read "hg status" or "svn status" output.  Each line is the status
+     * columns followed by the path; "hg status" uses one status column
+     * and a space, "svn status" uses seven status columns and a space.
+     */
+    private void readStatus(BufferedReader r, Set<String> modified)
+				throws IOException {
+	int pathIndex = scm.equals("hg") ? 2 : 8;
+	String line;
+	while ((line = r.readLine()) != null) {
+	    if (line.length() <= pathIndex)
+		continue;
+	    String st = line.trim();
+	    if (st.startsWith("M") || st.startsWith("A"))
+		modified.add(line.substring(pathIndex).
+					replace(File.separatorChar, '/'));
+	}
+    }
+}
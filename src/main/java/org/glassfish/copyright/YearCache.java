@@ -0,0 +1,201 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+/**
+ * Remember the years in which the files in git repositories were last
+ * changed, so that a later run doesn't have to read the history again.
+ *
+ * For each repository the cache records the HEAD commit the years are
+ * for, and the year for each path that was looked up.  If the entire
+ * history was read, the cache is "complete" and a path that isn't in
+ * it was never changed.  When HEAD changes, the caller updates the
+ * years from only the commits between the old and new HEAD commits.
+ *
+ * The cache file is written with a DataOutputStream: a magic string,
+ * the time zone the years were computed in, and the number of
+ * repositories, then for each repository its top level directory,
+ * HEAD commit, whether it's complete, and the number of paths, then
+ * each path and year.  If the magic string or time zone differ the
+ * entire cache is ignored.
+ *
+ * The methods of the cache are synchronized.  {@link GitHistory} looks
+ * up years in several threads at once, adding to the years for an
+ * entry, so the years are kept in a concurrent map.
+ */
+
+package org.glassfish.copyright;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class YearCache {
+    private static final String MAGIC = "copyright-years 1";
+
+    private final File cacheFile;
+    // repository top level directory -> entry
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+    private boolean dirty;
+
+    /**
+     * The years for one repository.
+     */
+    public static class Entry {
+	final String head;
+	final boolean complete;
+	// repository path -> year last changed, or "" if never changed
+	final Map<String, String> years;
+
+	Entry(String head, boolean complete, Map<String, String> years) {
+	    this.head = head;
+	    this.complete = complete;
+	    this.years = years;
+	}
+    }
+
+    public YearCache(File cacheFile) {
+	this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Read the cache file, if it exists and was written
+     * for the same time zone.
+     */
+    public synchronized void load() throws IOException {
+	entries.clear();
+	if (!cacheFile.exists())
+	    return;
+	DataInputStream in = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(cacheFile)));
+	try {
+	    if (!in.readUTF().equals(MAGIC) ||
+		    !in.readUTF().equals(TimeZone.getDefault().getID())) {
+		dirty = true;	// rewrite it
+		return;
+	    }
+	    int nrepos = in.readInt();
+	    for (int i = 0; i < nrepos; i++) {
+		String top = in.readUTF();
+		String head = in.readUTF();
+		boolean complete = in.readBoolean();
+		int n = in.readInt();
+		Map<String, String> years =
+				new ConcurrentHashMap<String, String>();
+		for (int j = 0; j < n; j++) {
+		    String path = in.readUTF();
+		    years.put(path, in.readUTF());
+		}
+		entries.put(top, new Entry(head, complete, years));
+	    }
+	} catch (EOFException ex) {
+	    // truncated, start over
+	    entries.clear();
+	    dirty = true;
+	} finally {
+	    in.close();
+	}
+    }
+
+    /**
+     * Write the cache file, if anything changed.
+     * The new file is written next to the old one and then renamed,
+     * so an interrupted run never leaves a partial cache file.
+     */
+    public synchronized void save() throws IOException {
+	if (!dirty)
+	    return;
+	File dir = cacheFile.getAbsoluteFile().getParentFile();
+	if (dir != null && !dir.isDirectory())
+	    dir.mkdirs();
+	File tmp = new File(cacheFile.getPath() + ".tmp");
+	DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(tmp)));
+	try {
+	    out.writeUTF(MAGIC);
+	    out.writeUTF(TimeZone.getDefault().getID());
+	    out.writeInt(entries.size());
+	    for (Map.Entry<String, Entry> me : entries.entrySet()) {
+		Entry e = me.getValue();
+		out.writeUTF(me.getKey());
+		out.writeUTF(e.head);
+		out.writeBoolean(e.complete);
+		out.writeInt(e.years.size());
+		for (Map.Entry<String, String> ye : e.years.entrySet()) {
+		    out.writeUTF(ye.getKey());
+		    out.writeUTF(ye.getValue());
+		}
+	    }
+	} finally {
+	    out.close();
+	}
+	if (!tmp.renameTo(cacheFile)) {
+	    cacheFile.delete();
+	    if (!tmp.renameTo(cacheFile))
+		throw new IOException("Can't rename " + tmp + " to " +
+					cacheFile);
+	}
+	dirty = false;
+    }
+
+    /**
+     * Return the entry for the repository, or null if none.
+     */
+    public synchronized Entry get(String top) {
+	return entries.get(top);
+    }
+
+    /**
+     * Set the years for the repository at the HEAD commit.
+     */
+    public synchronized Entry put(String top, String head, boolean complete,
+				Map<String, String> years) {
+	Entry e = new Entry(head, complete, years);
+	entries.put(top, e);
+	dirty = true;
+	return e;
+    }
+
+    /**
+     * Note that the years in an entry were added to.
+     */
+    public synchronized void changed() {
+	dirty = true;
+    }
+}